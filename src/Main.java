@@ -1,4 +1,17 @@
 import gamestate.*;
+import engine.FastForwardRunner;
+import engine.GameEngine;
+import engine.GameLogic;
+import engine.LoopConfig;
+import engine.RunSummary;
+import engine.StopCondition;
+import entities.GameManager;
+import input.ScriptedInputSource;
+import replay.ReplayPlayer;
+import utils.HeadlessRenderTarget;
+import utils.RandomStreams;
+
+import java.io.IOException;
 
 /**
  * Week 13: Main with Game State Pattern (FULLY INTEGRATED)
@@ -20,9 +33,39 @@ import gamestate.*;
  * (select difficulty & level)                    (play again?)
  *                                                    ↓
  *                                              MenuState (loop)
+ *
+ * Command line options: see gamestate.LaunchOptions
  */
 public class Main {
     public static void main(String[] args) {
+        LaunchOptions options;
+        try {
+            options = LaunchOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LaunchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        if (options.getMode() == LaunchOptions.Mode.HEADLESS) {
+            runHeadless(options);
+            return;
+        }
+        if (options.getMode() == LaunchOptions.Mode.FAST_FORWARD) {
+            runFastForward(options);
+            return;
+        }
+        if (options.getMode() == LaunchOptions.Mode.REPLAY) {
+            try {
+                runReplay(options);
+            } catch (IOException e) {
+                System.err.println("Cannot play replay: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
         System.out.println("\n╔════════════════════════════════════════╗");
         System.out.println("║                                        ║");
         System.out.println("║         DUNGEON ESCAPE                 ║");
@@ -34,7 +77,7 @@ public class Main {
         GameStateContext context = new GameStateContext();
 
         // Start with MenuState
-        context.setState(new MenuState());
+        context.setState(new MenuState(options));
 
         // Main game loop - update state machine
         while (context.isRunning() && context.getCurrentState() != null) {
@@ -56,8 +99,79 @@ public class Main {
             }
         }
 
+        options.close();
+
         System.out.println("\n[Game] Thanks for playing Dungeon Escape!");
         System.out.println("[Game] Design Patterns: Game State, Strategy, Template Method,");
         System.out.println("       Facade, Observer, Command, Factory, Object Pool, Singleton");
     }
+
+    /**
+     * --headless: the real game loop with rendering switched off.
+     * Frames are still encoded, so the numbers include encoder cost.
+     */
+    private static void runHeadless(LaunchOptions options) {
+        GameEngine engine = new GameEngine(options.createDifficulty(), options.createLevel(),
+            new HeadlessRenderTarget(), LoopConfig.benchmark(StopCondition.afterTicks(options.getTicks())));
+        engine.setRenderThreadEnabled(options.isRenderThread());
+        if (options.getRecordFile() != null) {
+            try {
+                engine.recordReplay(options.getRecordFile());
+            } catch (IOException e) {
+                System.err.println("Cannot record replay: " + e.getMessage());
+            }
+        }
+        engine.start();
+    }
+
+    /**
+     * --fast-forward: whole games on synthetic time, for difficulty balancing.
+     * Every run prints its seed, so any of them can be reproduced with --seed.
+     */
+    private static void runFastForward(LaunchOptions options) {
+        FastForwardRunner runner = new FastForwardRunner(options.createDifficulty(), options.createLevel());
+        ScriptedInputSource input = new ScriptedInputSource(options.getScript(), true);
+        long firstSeed = options.getSeed() != null ? options.getSeed() : RandomStreams.unseeded().getSeed();
+
+        int exits = 0;
+        long damage = 0;
+        double gameSeconds = 0;
+        double realSeconds = 0;
+        for (int i = 0; i < options.getRuns(); i++) {
+            input.rewind();
+            RunSummary summary = runner.run(input, options.getSeconds(), firstSeed + i);
+            System.out.println(summary);
+
+            exits += summary.hasReachedExit() ? 1 : 0;
+            damage += summary.getDamageTaken();
+            gameSeconds += summary.getGameSeconds();
+            realSeconds += summary.getRealNanos() / 1_000_000_000.0;
+        }
+        System.out.println(String.format("%d runs: exit reached %d times, average damage %.1f, %.0fx real time",
+            options.getRuns(), exits, (double) damage / options.getRuns(),
+            realSeconds > 0 ? gameSeconds / realSeconds : 0));
+    }
+
+    /**
+     * --replay: rebuild a recorded game headlessly, time the chosen tick
+     * range (--from/--to, --repeat times) and show where the game ended
+     */
+    private static void runReplay(LaunchOptions options) throws IOException {
+        ReplayPlayer player = ReplayPlayer.open(options.getReplayFile());
+        System.out.println(String.format("%s: %s, seed %d, %d inputs, %d keyframes, %d ticks",
+            options.getReplayFile(), player.getDifficultyName(), player.getSeed(),
+            player.getInputCount(), player.getKeyframeCount(), player.getEndTick()));
+
+        int from = Math.min(options.getFromTick(), player.getEndTick());
+        int to = Math.min(options.getToTick(), player.getEndTick());
+        System.out.println(String.format("Ticks %d-%d x%d: %s", from, to, options.getRepeat(),
+            player.benchmark(from, to, options.getRepeat()).summarizeMicros()));
+
+        player.seek(player.getEndTick());
+        GameLogic logic = player.getLogic();
+        System.out.println(String.format("Tick %d: player at %d,%d, HP %d, score %d%s",
+            logic.getFrameCount(), logic.getPlayerX(), logic.getPlayerY(),
+            GameManager.getInstance().getHp(), GameManager.getInstance().getScore(),
+            logic.hasReachedExit() ? ", exit reached" : ""));
+    }
 }
@@ -6,6 +6,8 @@ import battle.subsystems.BattleUISystem;
 import entities.Player;
 import entities.GameManager;
 
+import java.util.Random;
+
 /**
  * Week 13-04: Facade Pattern (SOLUTION) - INTEGRATED VERSION
  *
@@ -51,6 +53,15 @@ public class BattleFacade {
      * @param isDemoMode If true, boss only defends (for testing)
      */
     public BattleFacade(Player player, boolean isDemoMode) {
+        this(player, isDemoMode, new Random());
+    }
+
+    /**
+     * @param player The player entity
+     * @param isDemoMode If true, boss only defends (for testing)
+     * @param random Source for the boss AI (a seeded stream for reproducible runs)
+     */
+    public BattleFacade(Player player, boolean isDemoMode, Random random) {
         this.player = player;
         this.isDemoMode = isDemoMode;
 
@@ -60,7 +71,7 @@ public class BattleFacade {
         this.ui = new BattleUISystem();
 
         // Create the actual battle system
-        this.battleSystem = new BattleSystem(player, isDemoMode);
+        this.battleSystem = new BattleSystem(player, isDemoMode, random);
     }
 
     /**
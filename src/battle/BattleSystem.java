@@ -54,11 +54,19 @@ public class BattleSystem {
     }
 
     public BattleSystem(Player player, boolean isDemoMode) {
+        this(player, isDemoMode, new Random());
+    }
+
+    /**
+     * @param random Source for BossState.chooseAction (pass a seeded stream
+     *               to make the boss reproducible)
+     */
+    public BattleSystem(Player player, boolean isDemoMode, Random random) {
         this.player = player;
         this.bossHp = BOSS_MAX_HP;
         this.bossMaxHp = BOSS_MAX_HP;
         this.scanner = new Scanner(System.in);
-        this.random = new Random();
+        this.random = random;
         this.isDemoMode = isDemoMode;
 
         // Week 12-04: ✅ STATE PATTERN - Initialize with NORMAL state!
@@ -0,0 +1,36 @@
+package commands;
+
+import engine.GameLogic;
+
+/**
+ * RewindCommand - Step the whole world back in time
+ *
+ * Compare with MoveUpCommand.undo(): that only knows the player's old
+ * position. Rewinding goes through GameLogic's RewindBuffer, which keeps
+ * full-world snapshots, so obstacles, coins, HP and score go back too.
+ *
+ * The rewind itself happens inside GameLogic.step(), right after input,
+ * so the rest of that tick doesn't run on half-restored state.
+ */
+public class RewindCommand implements Command {
+    private final GameLogic logic;
+
+    public RewindCommand(GameLogic logic) {
+        this.logic = logic;
+    }
+
+    @Override
+    public void execute() {
+        logic.requestRewind();
+    }
+
+    @Override
+    public void undo() {
+        // Rewound ticks are gone - the timeline continues from the restored state
+    }
+
+    @Override
+    public String getName() {
+        return "Rewind";
+    }
+}
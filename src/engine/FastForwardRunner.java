@@ -0,0 +1,117 @@
+package engine;
+
+import difficulty.DifficultyStrategy;
+import entities.GameManager;
+import events.EventBus;
+import input.InputSource;
+import level.LevelLoader;
+import utils.RandomStreams;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * FastForwardRunner - Simulate whole games as fast as the CPU allows
+ *
+ * Used for balancing DifficultyStrategy implementations. Drives
+ * GameLogic.step() directly with synthetic time:
+ * - No rendering, no frame pacing, no wall clock
+ * - Input comes from an InputSource (usually a ScriptedInputSource)
+ * - Reaching the exit ends the run instead of starting the boss battle
+ *
+ * Each run starts from a clean slate: the GameManager singleton is reset
+ * and the EventBus listeners of the previous run are dropped.
+ *
+ * Console chatter from the simulated systems (level loading, achievement
+ * pop-ups, sound beeps) is muted while a run is in progress.
+ */
+public class FastForwardRunner {
+    private static final PrintStream MUTED = new PrintStream(OutputStream.nullOutputStream());
+
+    private final DifficultyStrategy strategy;
+    private final LevelLoader levelLoader;
+    private int tickRate = 60;
+    private boolean quiet = true;
+
+    public FastForwardRunner(DifficultyStrategy strategy, LevelLoader levelLoader) {
+        this.strategy = strategy;
+        this.levelLoader = levelLoader;
+    }
+
+    /**
+     * Simulation ticks per simulated second (same meaning as LoopConfig)
+     */
+    public void setTickRate(int tickRate) {
+        this.tickRate = Math.max(1, tickRate);
+    }
+
+    /**
+     * false = let the simulated systems print to System.out
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Fresh GameLogic with its level loaded, ready to step() without a
+     * terminal. Also used by replay.ReplayPlayer to rebuild a recorded session.
+     */
+    public static GameLogic createHeadlessSession(DifficultyStrategy strategy, LevelLoader levelLoader,
+                                                  InputSource input, long seed) {
+        GameManager.resetInstance();
+        EventBus.getInstance().clearListeners();
+
+        GameLogic logic = new GameLogic(strategy, input, new RandomStreams(seed));
+        logic.setBattleOnExit(false);
+        levelLoader.loadLevel();
+        logic.onLevelLoaded();
+        return logic;
+    }
+
+    /**
+     * Play one game with an unpredictable seed (see RunSummary.getSeed())
+     */
+    public RunSummary run(InputSource input, float maxGameSeconds) {
+        return run(input, maxGameSeconds, RandomStreams.unseeded().getSeed());
+    }
+
+    /**
+     * Play one game until the player reaches the exit, dies, or
+     * maxGameSeconds of simulated time have passed.
+     * The same seed and input script always give the same result.
+     */
+    public RunSummary run(InputSource input, float maxGameSeconds, long seed) {
+        PrintStream console = System.out;
+        if (quiet) {
+            System.setOut(MUTED);
+        }
+        try {
+            GameLogic logic = createHeadlessSession(strategy, levelLoader, input, seed);
+
+            GameManager manager = GameManager.getInstance();
+            float tickLength = 1.0f / tickRate;
+            long maxTicks = (long) Math.ceil(maxGameSeconds * tickRate);
+            long ticks = 0;
+
+            long start = System.nanoTime();
+            while (ticks < maxTicks && !logic.hasReachedExit() && manager.getHp() > 0) {
+                logic.step(tickLength);
+                ticks++;
+            }
+            long realNanos = System.nanoTime() - start;
+
+            float gameSeconds = ticks * tickLength;
+            WorldController world = logic.getWorldController();
+            return new RunSummary(strategy.getName(), seed, ticks, gameSeconds, realNanos,
+                logic.getDamageTaken(), logic.getHitsTaken(), manager.getHp() <= 0,
+                logic.getCoinsCollected(), logic.getCoins().size(), manager.getScore(),
+                logic.hasReachedExit(), logic.hasReachedExit() ? gameSeconds : -1,
+                world.getObstaclesSpawned(), world.getPeakObstacleCount(), world.getObstacleCount());
+        } finally {
+            EventBus.getInstance().clearListeners();
+            if (quiet) {
+                System.setOut(console);
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package engine;
+
+import world.DungeonMap;
+import world.FieldOfView;
+import world.TileIndex;
+
+/**
+ * FogOfWar - Tiles the player has seen at some point (renderer side)
+ *
+ * FrameRenderer shows three kinds of tiles:
+ * - visible (in the snapshot's field of view): tile and everything on it
+ * - explored: the remembered tile only, no coins or enemies
+ * - never seen: blank
+ *
+ * Only the fog mask is applied per frame; GridRenderer's diff then sends
+ * just the cells that were revealed or hidden since the last frame.
+ *
+ * Explored bits are kept per 32x32 chunk and allocated when a chunk is
+ * first seen. Owned by FrameRenderer (fed from snapshots only), and
+ * reset when a different map is loaded.
+ */
+public class FogOfWar {
+    private static final int CHUNK_BITS = 5;
+    private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+    private static final int WORDS_PER_CHUNK = (1 << (2 * CHUNK_BITS)) / 64;
+
+    private TileIndex exploredFor;
+    private int width;
+    private int height;
+    private int chunksX;
+    private long[][] explored;
+    private int revealedVersion = -1;
+
+    /**
+     * Add the snapshot's visible tiles to the explored set (only when the
+     * field of view was recomputed since the last call)
+     */
+    public void reveal(WorldSnapshot snapshot) {
+        TileIndex tiles = DungeonMap.getTileIndex();
+        if (tiles != exploredFor) {
+            exploredFor = tiles;
+            width = tiles.getWidth();
+            height = tiles.getHeight();
+            chunksX = (width + CHUNK_MASK) >>> CHUNK_BITS;
+            explored = new long[chunksX * ((height + CHUNK_MASK) >>> CHUNK_BITS)][];
+            revealedVersion = -1;
+        }
+        if (snapshot.fovVersion == revealedVersion) {
+            return;
+        }
+        revealedVersion = snapshot.fovVersion;
+        for (int wy = 0; wy < FieldOfView.SIZE; wy++) {
+            for (int wx = 0; wx < FieldOfView.SIZE; wx++) {
+                int x = snapshot.fovOriginX + wx;
+                int y = snapshot.fovOriginY + wy;
+                if (snapshot.isVisible(x, y) && x >= 0 && y >= 0 && x < width && y < height) {
+                    int chunk = (y >>> CHUNK_BITS) * chunksX + (x >>> CHUNK_BITS);
+                    if (explored[chunk] == null) {
+                        explored[chunk] = new long[WORDS_PER_CHUNK];
+                    }
+                    int bit = ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+                    explored[chunk][bit >>> 6] |= 1L << bit;
+                }
+            }
+        }
+    }
+
+    public boolean isExplored(int x, int y) {
+        if (explored == null || x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        long[] bits = explored[(y >>> CHUNK_BITS) * chunksX + (x >>> CHUNK_BITS)];
+        int bit = ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+        return bits != null && (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+}
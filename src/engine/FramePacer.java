@@ -0,0 +1,110 @@
+package engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * FramePacer - Waits out the rest of each frame as precisely as possible
+ *
+ * Thread.sleep() on Linux typically wakes 50-1000us late, so a loop that
+ * only sleeps never hits 16.67ms cleanly. Strategies:
+ * - SLEEP:  Thread.sleep only (lowest CPU, most jitter)
+ * - HYBRID: sleep until ~1ms before the deadline, parkNanos until ~100us,
+ *           then spin (near-exact wake-ups for a little CPU)
+ * - BUSY:   spin the whole time (most precise, burns a core)
+ *
+ * Deadlines advance by a fixed period instead of "now + period", so
+ * small overshoots don't accumulate. After a frame that overran by more
+ * than a whole period the schedule restarts from now (no burst of
+ * catch-up frames).
+ *
+ * Every wake-up's error (actual - deadline) goes into a LatencyHistogram.
+ */
+public class FramePacer {
+    public enum Strategy { SLEEP, HYBRID, BUSY }
+
+    // HYBRID: stop sleeping this long before the deadline (covers sleep overshoot)
+    private static final long SLEEP_MARGIN = 1_000_000;
+    // HYBRID: stop parking this long before the deadline and spin the rest
+    private static final long SPIN_MARGIN = 100_000;
+
+    private final long periodNanos;
+    private final Strategy strategy;
+    private final LatencyHistogram wakeUpError = new LatencyHistogram();
+    private long nextDeadline = 0;
+
+    /**
+     * @param targetFps Frames per second to pace to
+     * @param strategy How to wait
+     */
+    public FramePacer(int targetFps, Strategy strategy) {
+        this.periodNanos = 1_000_000_000L / Math.max(1, targetFps);
+        this.strategy = strategy;
+    }
+
+    /**
+     * Wait until the end of the current frame period
+     */
+    public void sync() {
+        long now = System.nanoTime();
+        if (nextDeadline == 0 || now - nextDeadline > periodNanos) {
+            // First frame, or we fell a whole frame behind: restart the schedule
+            nextDeadline = now + periodNanos;
+            return;
+        }
+        if (now >= nextDeadline) {
+            // Overran a little; skip the wait but keep the cadence
+            nextDeadline += periodNanos;
+            return;
+        }
+
+        waitUntil(nextDeadline);
+        wakeUpError.record(System.nanoTime() - nextDeadline);
+        nextDeadline += periodNanos;
+    }
+
+    private void waitUntil(long deadline) {
+        switch (strategy) {
+            case SLEEP:
+                sleep(deadline - System.nanoTime());
+                break;
+            case HYBRID:
+                long remaining = deadline - System.nanoTime();
+                if (remaining > SLEEP_MARGIN) {
+                    sleep(remaining - SLEEP_MARGIN);
+                }
+                while ((remaining = deadline - System.nanoTime()) > SPIN_MARGIN) {
+                    LockSupport.parkNanos(remaining - SPIN_MARGIN);
+                }
+                spinUntil(deadline);
+                break;
+            case BUSY:
+                spinUntil(deadline);
+                break;
+        }
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void spinUntil(long deadline) {
+        while (System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    public Strategy getStrategy() { return strategy; }
+    public long getPeriodNanos() { return periodNanos; }
+
+    /**
+     * @return How late each wake-up was, in nanoseconds
+     */
+    public LatencyHistogram getWakeUpError() { return wakeUpError; }
+}
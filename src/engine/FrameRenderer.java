@@ -0,0 +1,144 @@
+package engine;
+
+import utils.GridRenderer;
+import utils.RenderTarget;
+import utils.Viewport;
+import world.DungeonMap;
+
+/**
+ * FrameRenderer - Turns a WorldSnapshot into terminal output
+ *
+ * Paints the whole logical frame into its GridRenderer's back buffer;
+ * GridRenderer diffs it against the front buffer and only sends changed cells.
+ *
+ * Only reads the snapshot (plus the static map tiles), never live game
+ * objects. Everything a frame touches - grid buffers, encoder, HUD and
+ * fog state - belongs to this renderer, so it can run on the game loop
+ * thread or on a separate RenderThread.
+ */
+public class FrameRenderer {
+    // Camera: the grid on screen is a 25x25 window onto a world of any size
+    private static final int VIEW_WIDTH = 25;
+    private static final int VIEW_HEIGHT = 25;
+
+    private final Viewport viewport = new Viewport(VIEW_WIDTH, VIEW_HEIGHT);
+    private final GridRenderer grid;
+    private final HudRenderer hud = new HudRenderer();
+
+    // Fog of war: hide what the player can't see (on by default)
+    private final FogOfWar fog = new FogOfWar();
+    private boolean fogEnabled = true;
+
+    // Diff rendering: first frame (and any requested redraw) repaints everything
+    private boolean firstFrame = true;
+    private int shownRedrawGeneration = 0;
+
+    /**
+     * @param target Where frames are written
+     */
+    public FrameRenderer(RenderTarget target) {
+        this.grid = new GridRenderer(VIEW_WIDTH, VIEW_HEIGHT, target);
+    }
+
+    /**
+     * Show the whole map instead of the player's field of view.
+     * Set before the first frame.
+     */
+    public void setFogEnabled(boolean enabled) {
+        this.fogEnabled = enabled;
+    }
+
+    public void render(WorldSnapshot snapshot) {
+        // Slow link: skip this frame instead of queueing it. Nothing is marked
+        // as shown, so the next rendered frame's diff includes these changes.
+        RenderTarget target = grid.getFrameTarget();
+        if (!target.isReady()) {
+            target.onFrameDropped();
+            return;
+        }
+
+        grid.beginFrame();
+
+        int worldWidth = DungeonMap.getWidth();
+        int worldHeight = DungeonMap.getHeight();
+        boolean scrolled = false;
+
+        boolean fullRedraw = firstFrame || snapshot.redrawGeneration != shownRedrawGeneration;
+
+        if (firstFrame) {
+            viewport.centerOn(snapshot.playerX, snapshot.playerY, worldWidth, worldHeight);
+        } else {
+            viewport.follow(snapshot.playerX, snapshot.playerY, worldWidth, worldHeight);
+        }
+
+        if (fullRedraw) {
+            // Clear + pre-encoded background rows; the diff below then only adds entities
+            grid.setViewOffset(viewport.getOffsetX(), viewport.getOffsetY());
+            grid.redrawBackground(DungeonMap.getActiveMap().getEncodedBackground());
+            shownRedrawGeneration = snapshot.redrawGeneration;
+        } else {
+            scrolled = grid.scrollView(viewport.getOffsetX(), viewport.getOffsetY());
+        }
+
+        // Static background (row copies of the visible window only)
+        grid.paintBackground(DungeonMap.getActiveMap().getTiles());
+        if (fogEnabled) {
+            paintFog(snapshot);
+        }
+
+        for (int i = 0; i < snapshot.coinCount; i++) {
+            if (isShown(snapshot, snapshot.coinX[i], snapshot.coinY[i])) {
+                grid.paintCell(snapshot.coinGlyph[i], snapshot.coinX[i], snapshot.coinY[i]);
+            }
+        }
+
+        // Moving things are drawn between their last two tick positions
+        for (int i = 0; i < snapshot.obstacleCount; i++) {
+            int x = snapshot.interpolate(snapshot.previousObstacleX[i], snapshot.obstacleX[i]);
+            int y = snapshot.interpolate(snapshot.previousObstacleY[i], snapshot.obstacleY[i]);
+            if (isShown(snapshot, x, y)) {
+                grid.paintCell(snapshot.obstacleGlyph[i], x, y);
+            }
+        }
+
+        // The exit is a landmark: it stays on screen once found
+        if (snapshot.hasExit && (!fogEnabled || fog.isExplored(snapshot.exitX, snapshot.exitY))) {
+            grid.paintCell(snapshot.exitGlyph, snapshot.exitX, snapshot.exitY);
+        }
+
+        grid.paintCell('@',
+            snapshot.interpolate(snapshot.previousPlayerX, snapshot.playerX),
+            snapshot.interpolate(snapshot.previousPlayerY, snapshot.playerY));
+
+        // Clearing or scrolling the terminal also moved the HUD lines, so repaint it then too
+        if (fullRedraw || scrolled) {
+            hud.invalidate();
+        }
+        // HUD only emits the fields that changed, so idle frames cost nothing
+        hud.draw(snapshot, grid);
+        firstFrame = false;
+
+        grid.endFrame();
+    }
+
+    /**
+     * Blank every tile in view that the player has never seen
+     */
+    private void paintFog(WorldSnapshot snapshot) {
+        fog.reveal(snapshot);
+        int x0 = viewport.getOffsetX();
+        int y0 = viewport.getOffsetY();
+        for (int y = y0; y < y0 + VIEW_HEIGHT; y++) {
+            for (int x = x0; x < x0 + VIEW_WIDTH; x++) {
+                if (!fog.isExplored(x, y)) {
+                    grid.paintCell(' ', x, y);
+                }
+            }
+        }
+    }
+
+    // Coins and enemies only show up inside the field of view
+    private boolean isShown(WorldSnapshot snapshot, int x, int y) {
+        return !fogEnabled || snapshot.isVisible(x, y);
+    }
+}
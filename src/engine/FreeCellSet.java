@@ -0,0 +1,352 @@
+package engine;
+
+import world.TileIndex;
+import world.TileStore;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * FreeCellSet - The tiles an obstacle may spawn on, for uniform picks
+ *
+ * Spawning used to try up to 10 random tiles between the border walls and
+ * give up if all of them were walls or taken. This set knows which tiles
+ * are free (walkable, not on the border, not reserved, nobody standing
+ * there) and picks among them uniformly.
+ *
+ * Nothing is scanned up front, so a 4096x4096 (or memory-mapped) world
+ * costs no more than a 25x25 one:
+ * - Each 32x32 chunk has a free count in a Fenwick tree. A chunk nobody
+ *   has looked at yet counts as its area (0 for solid wall, from the chunk
+ *   directory alone); once worked out it counts its free bits exactly
+ * - A pick draws k below the total and walks the tree to the chunk that
+ *   holds the k-th free tile, then Long.bitCount over its 16 words finds
+ *   the tile itself
+ * - A draw landing in a chunk that isn't worked out yet works it out. If k
+ *   falls within the chunk's real free tiles it is used; otherwise the
+ *   draw is repeated. Each chunk is worked out once, so repeats run out
+ * - Tiles within the safety radius are left out of the count instead of
+ *   being drawn and rejected
+ *
+ * Which chunks are worked out shapes the draws, so that list is part of
+ * the saved game state: a game restored from a keyframe or a rewind works
+ * out the same chunks and spawns on the same tiles as the original run.
+ */
+public class FreeCellSet {
+    private static final int CHUNK_BITS = TileStore.CHUNK_BITS;
+    private static final int CHUNK_SIZE = TileStore.CHUNK_SIZE;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int WORDS_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE / 64;
+
+    /**
+     * Decides whether a tile is free when its chunk is first worked out
+     */
+    public interface TileFilter {
+        boolean isFree(int x, int y);
+    }
+
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final TileFilter filter;
+
+    // Free bits per chunk (null = not worked out yet)
+    private final long[][] bits;
+    // Free tiles per chunk: exact once worked out, the chunk's area before
+    private final int[] counts;
+    // Fenwick tree over counts (1-based)
+    private final int[] tree;
+    private int total = 0;
+
+    // Chunks in the order they were worked out (saved with the game state)
+    private int[] builtChunks = new int[16];
+    private int builtCount = 0;
+
+    // Ranks of the free tiles inside the safety radius, reused per pick
+    private int[] excluded = new int[16];
+
+    public FreeCellSet(TileIndex tiles, TileFilter filter) {
+        this.width = tiles.getWidth();
+        this.height = tiles.getHeight();
+        this.chunksX = (width + CHUNK_MASK) >>> CHUNK_BITS;
+        int chunksY = (height + CHUNK_MASK) >>> CHUNK_BITS;
+        this.filter = filter;
+        this.bits = new long[chunksX * chunksY][];
+        this.counts = new int[bits.length];
+        this.tree = new int[bits.length + 1];
+        for (int chunk = 0; chunk < bits.length; chunk++) {
+            int cx = chunk % chunksX;
+            int cy = chunk / chunksX;
+            boolean solid = tiles.getChunkKind(cx, cy) == TileIndex.CHUNK_SOLID;
+            counts[chunk] = solid ? 0 : chunkWidth(cx) * chunkHeight(cy);
+            total += counts[chunk];
+            tree[chunk + 1] += counts[chunk];
+            // Linear-time Fenwick construction: push each node into its parent
+            int parent = (chunk + 1) + ((chunk + 1) & -(chunk + 1));
+            if (parent <= bits.length) {
+                tree[parent] += tree[chunk + 1];
+            }
+        }
+    }
+
+    /**
+     * A tile became free (ignored until its chunk is worked out)
+     */
+    public void add(int x, int y) {
+        int chunk = chunkOf(x, y);
+        long[] words = chunk < 0 ? null : bits[chunk];
+        if (words != null) {
+            int bit = bitOf(x, y);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                words[bit >>> 6] |= 1L << bit;
+                adjust(chunk, 1);
+            }
+        }
+    }
+
+    /**
+     * A tile was taken (ignored until its chunk is worked out)
+     */
+    public void remove(int x, int y) {
+        int chunk = chunkOf(x, y);
+        long[] words = chunk < 0 ? null : bits[chunk];
+        if (words != null) {
+            int bit = bitOf(x, y);
+            if ((words[bit >>> 6] & (1L << bit)) != 0) {
+                words[bit >>> 6] &= ~(1L << bit);
+                adjust(chunk, -1);
+            }
+        }
+    }
+
+    public boolean contains(int x, int y) {
+        int chunk = chunkOf(x, y);
+        if (chunk < 0) {
+            return false;
+        }
+        long[] words = bits[chunk] != null ? bits[chunk] : build(chunk);
+        int bit = bitOf(x, y);
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Uniformly random free tile farther than 'radius' (Manhattan) from
+     * (cx, cy)
+     *
+     * @return Tile key (y * width + x), or -1 if no tile qualifies
+     */
+    public int pickExcluding(Random random, int cx, int cy, int radius) {
+        while (true) {
+            int excludedCount = collectExcluded(cx, cy, radius);
+            int candidates = total - excludedCount;
+            if (candidates <= 0) {
+                return -1;
+            }
+            int position = random.nextInt(candidates);
+            // Step over the tiles inside the radius (ranks ascending)
+            for (int i = 0; i < excludedCount && excluded[i] <= position; i++) {
+                position++;
+            }
+
+            int chunk = chunkAt(position);
+            int offset = position - prefix(chunk);
+            if (bits[chunk] == null) {
+                build(chunk);
+                if (offset >= counts[chunk]) {
+                    // Landed on part of the area that turned out not to be free
+                    continue;
+                }
+            }
+            return keyOf(chunk, selectBit(bits[chunk], offset));
+        }
+    }
+
+    public int getX(int key) {
+        return key % width;
+    }
+
+    public int getY(int key) {
+        return key / width;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // State save/restore: the chunks worked out so far
+    // ═══════════════════════════════════════════════════════════════
+
+    public int getStateSizeHint() {
+        return 4 + builtCount * 4;
+    }
+
+    public void saveState(ByteBuffer out) {
+        out.putInt(builtCount);
+        for (int i = 0; i < builtCount; i++) {
+            out.putInt(builtChunks[i]);
+        }
+    }
+
+    /**
+     * Work out the saved chunks again (on a fresh set whose tiles are
+     * already restored)
+     */
+    public void loadState(ByteBuffer in) {
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            int chunk = in.getInt();
+            if (bits[chunk] == null) {
+                build(chunk);
+            }
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Picking helpers
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Work out the chunks around (cx, cy), then store the ranks of the
+     * free tiles within the radius in excluded[], sorted
+     */
+    private int collectExcluded(int cx, int cy, int radius) {
+        for (int dy = -radius; dy <= radius; dy++) {
+            int reach = radius - Math.abs(dy);
+            for (int dx = -reach; dx <= reach; dx++) {
+                contains(cx + dx, cy + dy);
+            }
+        }
+        // Ranks are only stable once every chunk involved is worked out
+        int count = 0;
+        for (int dy = -radius; dy <= radius; dy++) {
+            int reach = radius - Math.abs(dy);
+            for (int dx = -reach; dx <= reach; dx++) {
+                int x = cx + dx;
+                int y = cy + dy;
+                if (contains(x, y)) {
+                    if (count == excluded.length) {
+                        excluded = Arrays.copyOf(excluded, count * 2);
+                    }
+                    excluded[count++] = rankOf(x, y);
+                }
+            }
+        }
+        Arrays.sort(excluded, 0, count);
+        return count;
+    }
+
+    // Free tiles ahead of (x, y) in pick order (chunk by chunk, bit order inside)
+    private int rankOf(int x, int y) {
+        int chunk = chunkOf(x, y);
+        long[] words = bits[chunk];
+        int bit = bitOf(x, y);
+        int rank = prefix(chunk);
+        for (int i = 0; i < bit >>> 6; i++) {
+            rank += Long.bitCount(words[i]);
+        }
+        return rank + Long.bitCount(words[bit >>> 6] & ((1L << (bit & 63)) - 1));
+    }
+
+    // Index of the k-th set bit among the chunk's words
+    private static int selectBit(long[] words, int k) {
+        for (int i = 0; i < words.length; i++) {
+            int inWord = Long.bitCount(words[i]);
+            if (k < inWord) {
+                long word = words[i];
+                for (; k > 0; k--) {
+                    word &= word - 1;
+                }
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            k -= inWord;
+        }
+        throw new IllegalStateException("Free count out of step with the chunk bits");
+    }
+
+    private int keyOf(int chunk, int bit) {
+        int x = ((chunk % chunksX) << CHUNK_BITS) + (bit & CHUNK_MASK);
+        int y = ((chunk / chunksX) << CHUNK_BITS) + (bit >>> CHUNK_BITS);
+        return y * width + x;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Fenwick tree over the per-chunk counts
+    // ═══════════════════════════════════════════════════════════════
+
+    private void adjust(int chunk, int delta) {
+        counts[chunk] += delta;
+        total += delta;
+        for (int i = chunk + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Free tiles in chunks 0..chunk-1
+    private int prefix(int chunk) {
+        int sum = 0;
+        for (int i = chunk; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    // Chunk holding position (0 <= position < total): prefix(chunk) <= position < prefix(chunk + 1)
+    private int chunkAt(int position) {
+        int index = 0;
+        for (int step = Integer.highestOneBit(bits.length); step > 0; step >>>= 1) {
+            int next = index + step;
+            if (next < tree.length && tree[next] <= position) {
+                index = next;
+                position -= tree[next];
+            }
+        }
+        return index;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Chunks
+    // ═══════════════════════════════════════════════════════════════
+
+    private int chunkOf(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        return (y >>> CHUNK_BITS) * chunksX + (x >>> CHUNK_BITS);
+    }
+
+    private long[] build(int chunk) {
+        long[] words = new long[WORDS_PER_CHUNK];
+        int x0 = (chunk % chunksX) << CHUNK_BITS;
+        int y0 = (chunk / chunksX) << CHUNK_BITS;
+        int x1 = Math.min(x0 + CHUNK_SIZE, width);
+        int y1 = Math.min(y0 + CHUNK_SIZE, height);
+        int free = 0;
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                if (filter.isFree(x, y)) {
+                    int bit = bitOf(x, y);
+                    words[bit >>> 6] |= 1L << bit;
+                    free++;
+                }
+            }
+        }
+        bits[chunk] = words;
+        adjust(chunk, free - counts[chunk]);
+
+        if (builtCount == builtChunks.length) {
+            builtChunks = Arrays.copyOf(builtChunks, builtCount * 2);
+        }
+        builtChunks[builtCount++] = chunk;
+        return words;
+    }
+
+    private int chunkWidth(int cx) {
+        return Math.min(CHUNK_SIZE, width - (cx << CHUNK_BITS));
+    }
+
+    private int chunkHeight(int cy) {
+        return Math.min(CHUNK_SIZE, height - (cy << CHUNK_BITS));
+    }
+
+    private static int bitOf(int x, int y) {
+        return ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+    }
+}
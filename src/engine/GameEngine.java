@@ -1,15 +1,16 @@
 package engine;
 
-import world.DungeonMap;
-import entities.Coin;
-import entities.GameManager;
 import entities.Player;
-import obstacles.Obstacle;
 import utils.GridRenderer;
+import utils.RenderTarget;
+import utils.StdoutSink;
+import utils.RandomStreams;
 import difficulty.DifficultyStrategy;
 import level.LevelLoader;
-import java.util.Map;
-import java.util.HashMap;
+import replay.ReplayRecorder;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 /**
  * GameEngine - Main game loop with difficulty system
@@ -25,30 +26,33 @@ import java.util.HashMap;
  */
 public class GameEngine {
     private final GameLogic logic;
-    private final HUD hud;
+    private final FrameRenderer frameRenderer;
     private final PerformanceMonitor perfMonitor;
     private boolean running;
     private final DifficultyStrategy strategy;
     private final LevelLoader levelLoader;
 
+    // Where frames go: the terminal, or a headless target for benchmarks
+    private final RenderTarget renderTarget;
+
     // Week 12-05: Game State Pattern - Track game result
     private boolean reachedExit = false;
 
-    // Frame rate control
-    private static final int TARGET_FPS = 60;
-    private static final long OPTIMAL_TIME = 1_000_000_000 / TARGET_FPS;
+    // Frame rate, tick rate, pacing and run length
+    // Fixed timestep: the simulation always advances in ticks of 1/tickRate seconds,
+    // however long a frame took. A long stall (GC pause) runs at most
+    // maxStepsPerFrame ticks and the rest is dropped instead of one huge step.
+    private final LoopConfig config;
 
-    // Selective rendering to avoid flickering
-    private int prevPlayerX = -1;
-    private int prevPlayerY = -1;
-    private int[] prevCoinX = null;
-    private int[] prevCoinY = null;
-    private Map<Obstacle, int[]> prevObstaclePositions = new HashMap<>();
-    private boolean firstFrame = true;
+    // Rendering: the loop only captures snapshots; drawing happens in FrameRenderer,
+    // either inline (default) or on a RenderThread fed through a TripleBuffer
+    private boolean renderThreadEnabled = false;
+    private final WorldSnapshot snapshot = new WorldSnapshot();
+    private TripleBuffer<WorldSnapshot> snapshots;
+    private RenderThread renderThread;
 
-    // HUD rendering control
-    private float hudUpdateTimer = 0;
-    private final float hudUpdateInterval = 0.1f;
+    // Optional .replay recording of this session (see recordReplay)
+    private ReplayRecorder replayRecorder;
 
     /**
      * Constructor with Strategy + Template Method Pattern
@@ -57,20 +61,79 @@ public class GameEngine {
      * @param levelLoader The level loader (uses Template Method Pattern)
      */
     public GameEngine(DifficultyStrategy strategy, LevelLoader levelLoader) {
+        this(strategy, levelLoader, new StdoutSink());
+    }
+
+    /**
+     * Constructor with a pluggable render target
+     *
+     * A non-interactive target (HeadlessRenderTarget) gets an uncapped
+     * loop, so the run measures pure simulation + encoding throughput.
+     *
+     * @param strategy The difficulty strategy to use
+     * @param levelLoader The level loader (uses Template Method Pattern)
+     * @param renderTarget Where encoded frames are written
+     */
+    public GameEngine(DifficultyStrategy strategy, LevelLoader levelLoader, RenderTarget renderTarget) {
+        this(strategy, levelLoader, renderTarget, renderTarget.isInteractive()
+            ? new LoopConfig()
+            : LoopConfig.benchmark(StopCondition.afterTicks(3000)));
+    }
+
+    /**
+     * Constructor with an explicit loop configuration
+     *
+     * @param strategy The difficulty strategy to use
+     * @param levelLoader The level loader (uses Template Method Pattern)
+     * @param renderTarget Where encoded frames are written
+     * @param config Frame rate, tick rate, pacing and stop condition
+     */
+    public GameEngine(DifficultyStrategy strategy, LevelLoader levelLoader, RenderTarget renderTarget,
+                      LoopConfig config) {
         this.strategy = strategy;
         this.levelLoader = levelLoader;
+        this.renderTarget = renderTarget;
+        this.config = config;
         this.logic = new GameLogic(strategy);
-        this.hud = logic.getHUD();
+        this.logic.enableRewind(RewindBuffer.DEFAULT_SECONDS * config.getTickRate(),
+            RewindBuffer.DEFAULT_STEP_SECONDS * config.getTickRate());
+        this.frameRenderer = new FrameRenderer(renderTarget);
         this.perfMonitor = new PerformanceMonitor();
         this.running = false;
     }
 
+    /**
+     * Render on a separate thread so a slow terminal never stalls the simulation
+     * (--render-thread). Must be called before start().
+     */
+    public void setRenderThreadEnabled(boolean enabled) {
+        this.renderThreadEnabled = enabled;
+    }
+
+    /**
+     * Fog of war (default on): only what the player can see is drawn.
+     * Must be called before start().
+     */
+    public void setFogOfWarEnabled(boolean enabled) {
+        frameRenderer.setFogEnabled(enabled);
+    }
+
+    /**
+     * Record this session (seed, keys, keyframes) to a replay file that
+     * replay.ReplayPlayer can play back. Must be called before start().
+     */
+    public void recordReplay(Path file) throws IOException {
+        replayRecorder = new ReplayRecorder(file, logic.getRandomStreams().getSeed(), config.getTickRate(),
+            strategy, levelLoader, ReplayRecorder.DEFAULT_KEYFRAME_INTERVAL);
+        logic.setReplayRecorder(replayRecorder);
+    }
+
     /**
      * Main game loop with performance monitoring
      */
     public void start() {
         running = true;
-        long lastTime = System.nanoTime();
+        GridRenderer.setRenderTarget(renderTarget);
 
         System.out.println("\n=================================");
         System.out.println("  DUNGEON ESCAPE");
@@ -81,8 +144,10 @@ public class GameEngine {
 
         // Template Method Pattern - Load level
         levelLoader.loadLevel();
+        logic.onLevelLoaded();
 
         System.out.println("Controls: W/A/S/D + Enter to move");
+        System.out.println("          R + Enter to rewind");
         System.out.println("          Q + Enter to quit");
         System.out.println("Note: Windows requires Enter after each key");
         System.out.println("Features: Template Method, Facade Pattern");
@@ -90,202 +155,143 @@ public class GameEngine {
         System.out.println("=================================\n");
 
         // Hide cursor before game starts
-        System.out.print("\033[?25l");
-        System.out.flush();
-
-        while (running) {
-            long frameStart = System.nanoTime();
-
-            // Calculate delta time
-            long currentTime = System.nanoTime();
-            float delta = (currentTime - lastTime) / 1_000_000_000.0f;
-            lastTime = currentTime;
-
-            // Update game time
-            GameManager.getInstance().updateTime(delta);
-
-            // Update phase
-            update(delta);
-
-            // Draw phase
-            draw();
-
-            // Frame rate control
-            sync(frameStart);
-
-            // Stop after demo frames (3000 frames = ~50 seconds at 60 FPS)
-            if (logic.getFrameCount() >= 3000) {
-                running = false;
-            }
+        GridRenderer.setCursorVisible(false);
+
+        if (renderThreadEnabled) {
+            snapshots = new TripleBuffer<>(new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot());
+            renderThread = new RenderThread(snapshots, frameRenderer);
+            logic.setRenderThread(renderThread);
+            perfMonitor.setRenderThread(renderThread);
+            renderThread.start();
         }
 
-        // Show cursor again after game ends
-        System.out.print("\033[?25h");
-        System.out.flush();
+        FramePacer pacer = config.isUnlimited() ? null
+            : new FramePacer(config.getTargetFps(), config.getPacingStrategy());
+        perfMonitor.setPacer(pacer);
 
-        // Move cursor below the grid and HUD
-        System.out.print("\033[35;1H");
-        System.out.flush();
+        StopCondition stopCondition = config.getStopCondition();
+        int maxStepsPerFrame = config.getMaxStepsPerFrame();
+        float tickLength = 1.0f / config.getTickRate();
+        float accumulator = 0;
+        long frames = 0;
 
-        System.out.println("\n\n=================================");
-        System.out.println("Game ended after 3000 frames (~50 seconds)");
-        System.out.println(String.format("Total GC time: %dms", perfMonitor.getTotalGcTime()));
-        System.out.println("=================================");
+        long runStart = System.nanoTime();
+        long lastTime = runStart;
+        stopCondition.start();
 
-        logic.printPoolStats();
-    }
-
-    private void update(float delta) {
-        logic.handleInput();
-        logic.updateWorldController(delta);
-        logic.checkCollisions();
-        logic.incrementFrame();
-
-        // Observer Pattern - Publish GameTimeEvent
-        float elapsedTime = GameManager.getInstance().getGameTime();
-        events.EventBus.getInstance().publish(new events.GameTimeEvent(elapsedTime));
-
-        hudUpdateTimer += delta;
-    }
-
-    private void draw() {
-        GridRenderer.beginFrame();
-
-        if (firstFrame) {
-            GridRenderer.clearScreen();
-            char[][] grid = DungeonMap.getMapCopy();
+        while (running) {
+            long frameStart = System.nanoTime();
 
-            for (Coin coin : logic.getCoins()) {
-                if (!coin.isCollected()) {
-                    grid[coin.getY()][coin.getX()] = coin.getSymbol();
+            // Real time since the last frame; headless runs use synthetic time
+            // (one tick per frame) so benchmarks aren't bound to the wall clock
+            float frameTime = (frameStart - lastTime) / 1_000_000_000.0f;
+            lastTime = frameStart;
+            accumulator += renderTarget.isInteractive() ? frameTime : tickLength;
+
+            // Update phase: as many fixed ticks as the elapsed time covers
+            int steps = 0;
+            while (accumulator >= tickLength && steps < maxStepsPerFrame && running) {
+                logic.step(tickLength);
+                accumulator -= tickLength;
+                steps++;
+                if (stopCondition.shouldStop(logic.getFrameCount(), System.nanoTime() - runStart)) {
+                    running = false;
                 }
             }
-
-            for (Obstacle obstacle : logic.getWorldController().getActiveObstacles()) {
-                grid[obstacle.getY()][obstacle.getX()] = obstacle.getSymbol();
-            }
-
-            if (logic.getDungeonExit() != null) {
-                grid[logic.getDungeonExit().getY()][logic.getDungeonExit().getX()] = logic.getDungeonExit().getSymbol();
+            if (steps == maxStepsPerFrame) {
+                // Spiral-of-death guard: drop the backlog instead of catching up
+                accumulator = Math.min(accumulator, tickLength);
             }
 
-            grid[logic.getPlayerY()][logic.getPlayerX()] = '@';
-            GridRenderer.drawGrid(grid);
+            // Draw phase (alpha = progress towards the next tick)
+            draw(Math.min(1.0f, accumulator / tickLength));
 
-            prevPlayerX = logic.getPlayerX();
-            prevPlayerY = logic.getPlayerY();
-            prevCoinX = new int[logic.getCoins().size()];
-            prevCoinY = new int[logic.getCoins().size()];
-            for (int i = 0; i < logic.getCoins().size(); i++) {
-                prevCoinX[i] = logic.getCoins().get(i).getX();
-                prevCoinY[i] = logic.getCoins().get(i).getY();
-            }
+            // Work time of this frame (pacing wait excluded)
+            perfMonitor.recordFrameTime(System.nanoTime() - frameStart);
+            frames++;
 
-            firstFrame = false;
-        } else {
-            int currentPlayerX = logic.getPlayerX();
-            int currentPlayerY = logic.getPlayerY();
-            if (currentPlayerX != prevPlayerX || currentPlayerY != prevPlayerY) {
-                char oldTile = DungeonMap.getTile(prevPlayerX, prevPlayerY);
-                GridRenderer.drawCell(oldTile, prevPlayerX, prevPlayerY);
-                prevPlayerX = currentPlayerX;
-                prevPlayerY = currentPlayerY;
+            if (stopCondition.shouldStop(logic.getFrameCount(), System.nanoTime() - runStart)) {
+                running = false;
             }
 
-            for (int i = 0; i < logic.getCoins().size(); i++) {
-                Coin coin = logic.getCoins().get(i);
-                if (!coin.isCollected()) {
-                    int currentX = coin.getX();
-                    int currentY = coin.getY();
-                    if (currentX != prevCoinX[i] || currentY != prevCoinY[i]) {
-                        GridRenderer.clearCell(prevCoinX[i], prevCoinY[i]);
-                        GridRenderer.drawCell(coin.getSymbol(), currentX, currentY);
-                        prevCoinX[i] = currentX;
-                        prevCoinY[i] = currentY;
-                    }
-                } else {
-                    GridRenderer.drawCell('.', prevCoinX[i], prevCoinY[i]);
-                }
+            // Frame rate control (uncapped runs go as fast as possible)
+            if (pacer != null && running) {
+                pacer.sync();
             }
+        }
 
-            for (Map.Entry<Obstacle, int[]> entry : prevObstaclePositions.entrySet()) {
-                int[] oldPos = entry.getValue();
-                char mapTile = DungeonMap.getTile(oldPos[0], oldPos[1]);
-                GridRenderer.drawCell(mapTile, oldPos[0], oldPos[1]);
-            }
-            prevObstaclePositions.clear();
+        stopCondition.finish();
+        long runTime = System.nanoTime() - runStart;
 
-            for (Obstacle obstacle : logic.getWorldController().getActiveObstacles()) {
-                int x = obstacle.getX();
-                int y = obstacle.getY();
-                GridRenderer.drawCell(obstacle.getSymbol(), x, y);
-                prevObstaclePositions.put(obstacle, new int[]{x, y});
-            }
-
-            int playerX = logic.getPlayerX();
-            int playerY = logic.getPlayerY();
-
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dx = -1; dx <= 1; dx++) {
-                    int x = playerX + dx;
-                    int y = playerY + dy;
-
-                    if (x >= 0 && x < 25 && y >= 0 && y < 25) {
-                        char symbol = DungeonMap.getTile(x, y);
-
-                        if (x == playerX && y == playerY) {
-                            symbol = '@';
-                        } else {
-                            for (Coin coin : logic.getCoins()) {
-                                if (!coin.isCollected() && coin.getX() == x && coin.getY() == y) {
-                                    symbol = coin.getSymbol();
-                                    break;
-                                }
-                            }
-                            for (Obstacle obstacle : logic.getWorldController().getActiveObstacles()) {
-                                if (obstacle.getX() == x && obstacle.getY() == y) {
-                                    symbol = obstacle.getSymbol();
-                                    break;
-                                }
-                            }
-                            if (logic.getDungeonExit() != null &&
-                                logic.getDungeonExit().getX() == x &&
-                                logic.getDungeonExit().getY() == y) {
-                                symbol = logic.getDungeonExit().getSymbol();
-                            }
-                        }
-                        GridRenderer.drawCell(symbol, x, y);
-                    }
-                }
+        if (replayRecorder != null) {
+            try {
+                replayRecorder.close();
+            } catch (IOException e) {
+                System.err.println("Replay could not be saved: " + e.getMessage());
             }
         }
 
-        if (firstFrame || hudUpdateTimer >= hudUpdateInterval) {
-            hud.draw();
-            if (hudUpdateTimer >= hudUpdateInterval) {
-                hudUpdateTimer = 0;
-            }
+        // Let the render thread draw the last snapshot before we touch the terminal
+        if (renderThread != null) {
+            renderThread.shutdown();
+            logic.setRenderThread(null);
+            perfMonitor.setRenderThread(null);
         }
 
-        int px = logic.getPlayerX();
-        int py = logic.getPlayerY();
-        GridRenderer.drawCell('@', px, py);
-        GridRenderer.drawCell('@', px, py);
-        GridRenderer.drawCell('@', px, py);
+        // Show cursor again after game ends
+        GridRenderer.setCursorVisible(true);
+
+        // Move cursor below the grid and HUD
+        GridRenderer.moveCursor(0, 34);
 
-        GridRenderer.endFrame();
-    }
+        // An asynchronous target may still be writing; finish before println
+        renderTarget.flush();
 
-    private void sync(long cycleStart) {
-        long elapsedTime = System.nanoTime() - cycleStart;
-        long waitTime = OPTIMAL_TIME - elapsedTime;
+        System.out.println("\n\n=================================");
+        double seconds = runTime / 1_000_000_000.0;
+        LatencyHistogram frameTimes = perfMonitor.getFrameTimes();
+        System.out.println("Game ended after " + logic.getFrameCount() + " ticks, " + frames + " frames");
+        System.out.println(String.format("Run: %.2fs, %.0f ticks/sec, %.0f frames/sec",
+            seconds, logic.getFrameCount() / seconds, frames / seconds));
+        System.out.println(String.format("Frame time: avg %.3fms, p50 %.3fms, p99 %.3fms, p99.9 %.3fms",
+            frameTimes.getMean() / 1_000_000.0, frameTimes.getPercentile(50) / 1_000_000.0,
+            frameTimes.getPercentile(99) / 1_000_000.0, frameTimes.getPercentile(99.9) / 1_000_000.0));
+        System.out.println(String.format("Total GC time: %dms", perfMonitor.getTotalGcTime()));
+        System.out.println("Seed: " + logic.getRandomStreams().getSeed());
+        if (replayRecorder != null) {
+            System.out.println("Replay: " + replayRecorder.getBytesWritten() + " bytes");
+        }
+        if (pacer != null) {
+            System.out.println(perfMonitor.getPacingSummary());
+        }
+        if (renderThread != null) {
+            System.out.println("Render thread drew " + renderThread.getFramesRendered() + " frames");
+        }
+        if (!renderTarget.isInteractive()) {
+            System.out.println(String.format("Terminal would have received %d bytes (%.1f bytes/frame)",
+                renderTarget.getBytesWritten(), (double) renderTarget.getBytesWritten() / frames));
+        }
+        if (renderTarget.getDroppedFrames() > 0) {
+            System.out.println(String.format("Slow output: %d frames dropped, %.0f bytes/sec",
+                renderTarget.getDroppedFrames(), renderTarget.getBytesWritten() / seconds));
+        }
+        System.out.println("=================================");
 
-        if (waitTime > 0) {
-            try {
-                Thread.sleep(waitTime / 1_000_000, (int)(waitTime % 1_000_000));
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+        logic.printPoolStats();
+    }
+
+    /**
+     * Capture the world into a snapshot and hand it to the renderer.
+     * With the render thread enabled this never blocks on terminal output.
+     */
+    private void draw(float alpha) {
+        if (renderThread != null) {
+            snapshots.back().capture(logic, logic.getFrameCount(), alpha);
+            snapshots.publish();
+            renderThread.wake();
+        } else {
+            snapshot.capture(logic, logic.getFrameCount(), alpha);
+            frameRenderer.render(snapshot);
         }
     }
 
@@ -293,6 +299,13 @@ public class GameEngine {
     // Game State Pattern - Getters for state transitions
     // ═══════════════════════════════════════════════════════════════
 
+    /**
+     * Seeded randomness of this session (reseed before start() to replay a game)
+     */
+    public RandomStreams getRandomStreams() {
+        return logic.getRandomStreams();
+    }
+
     public Player getPlayer() {
         return logic.getPlayer();
     }
@@ -7,17 +7,24 @@ import entities.Coin;
 import entities.DungeonExit;
 import obstacles.Obstacle;
 import input.InputHandler;
+import input.InputSource;
+import input.ConsoleInputSource;
 import systems.SoundSystem;
 import systems.AchievementSystem;
 import events.EventBus;
 import difficulty.DifficultyStrategy;
 import battle.BattleFacade;
 import commands.*;
+import replay.RecordingInputSource;
+import replay.ReplayRecorder;
+import utils.GridRenderer;
+import utils.RandomStreams;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 
 /**
  * GameLogic - Game rules and collision handling
@@ -33,19 +40,59 @@ public class GameLogic {
     private List<Coin> coins;
     private DungeonExit dungeonExit;
     private WorldController worldController;
+    private OccupancyGrid occupancy;
     private InputHandler inputHandler;
     private int frameCount;
-    private Random random;
+
+    // Every random decision of this session comes from here (reproducible by seed)
+    private final RandomStreams randomStreams;
+
+    // Seed + keys + periodic keyframes = a replayable session (null = not recording)
+    private ReplayRecorder replayRecorder;
+
+    // Renders frames on its own thread, if enabled (paused while the battle prints)
+    private RenderThread renderThread;
+
+    // Recent history for the rewind key (null = rewind disabled)
+    private RewindBuffer rewindBuffer;
+    private int rewindStepTicks;
+    private boolean rewindRequested = false;
+
+    // Player position before the last step() (render interpolation)
+    private int previousPlayerX;
+    private int previousPlayerY;
 
     private SoundSystem soundSystem;
     private AchievementSystem achievementSystem;
     private HUD hud;
 
     private String lastCollisionMessage = "";
+
+    // Bumped whenever something printed over the game screen (e.g. the battle);
+    // the renderer does a full redraw when it sees a new value
+    private int redrawGeneration = 0;
     private DifficultyStrategy strategy;
 
+    // Reaching the exit starts the boss battle; fast-forward runs just record it
+    private boolean battleOnExit = true;
+    private boolean reachedExit = false;
+
+    // Run statistics (fast-forward summaries)
+    private int damageTaken = 0;
+    private int hitsTaken = 0;
+    private int coinsCollected = 0;
+
     public GameLogic(DifficultyStrategy strategy) {
-        this.random = new Random();
+        this(strategy, new ConsoleInputSource(), RandomStreams.unseeded());
+    }
+
+    /**
+     * @param strategy The difficulty strategy to use
+     * @param inputSource Where key presses come from (keyboard or a script)
+     * @param randomStreams Seeded randomness for this session
+     */
+    public GameLogic(DifficultyStrategy strategy, InputSource inputSource, RandomStreams randomStreams) {
+        this.randomStreams = randomStreams;
         this.strategy = strategy;
 
         // Observer Pattern - Create systems independently
@@ -60,6 +107,8 @@ public class GameLogic {
         eventBus.subscribe(hud);
 
         this.player = new Player(10, 10);
+        this.previousPlayerX = player.getX();
+        this.previousPlayerY = player.getY();
 
         // Static coins placed in dungeon
         this.coins = new ArrayList<>();
@@ -75,12 +124,20 @@ public class GameLogic {
 
         this.dungeonExit = new DungeonExit(23, 23);
 
+        // Per-tile index of coins/obstacles (O(1) collision lookups)
+        this.occupancy = new OccupancyGrid(DungeonMap.getWidth(), DungeonMap.getHeight());
+        occupancy.reserveTile(dungeonExit.getX(), dungeonExit.getY());
+        for (int i = 0; i < coins.size(); i++) {
+            occupancy.addCoin(i, coins.get(i).getX(), coins.get(i).getY());
+        }
+
         // Command Pattern - Create command objects
         Command moveUpCmd = new MoveUpCommand(player);
         Command moveDownCmd = new MoveDownCommand(player);
         Command moveLeftCmd = new MoveLeftCommand(player);
         Command moveRightCmd = new MoveRightCommand(player);
         Command quitCmd = new QuitCommand();
+        Command rewindCmd = new RewindCommand(this);
 
         Map<Character, Command> keyBindings = new HashMap<>();
         keyBindings.put('w', moveUpCmd);
@@ -88,74 +145,286 @@ public class GameLogic {
         keyBindings.put('a', moveLeftCmd);
         keyBindings.put('d', moveRightCmd);
         keyBindings.put('q', quitCmd);
+        keyBindings.put('r', rewindCmd);
 
-        this.inputHandler = new InputHandler(keyBindings);
-        this.worldController = new WorldController(player, strategy);
+        this.inputHandler = new InputHandler(keyBindings, inputSource);
+        this.worldController = new WorldController(player, strategy, occupancy, randomStreams);
         this.frameCount = 0;
     }
 
+    /**
+     * Called once the level loader has set the active map.
+     * Re-sizes the occupancy grid for that map and re-indexes everything.
+     */
+    public void onLevelLoaded() {
+        occupancy.resize(DungeonMap.getWidth(), DungeonMap.getHeight());
+        for (int i = 0; i < coins.size(); i++) {
+            Coin coin = coins.get(i);
+            if (!coin.isCollected()) {
+                occupancy.addCoin(i, coin.getX(), coin.getY());
+            }
+        }
+        for (Obstacle obstacle : worldController.getActiveObstacles()) {
+            occupancy.addObstacle(obstacle);
+        }
+        worldController.refreshPlayerView();
+    }
+
+    /**
+     * Advance the simulation by exactly one fixed tick.
+     * GameEngine calls this from its accumulator loop, so dt is always the
+     * same value - obstacle movement and timers no longer depend on frame jitter.
+     *
+     * @param dt Tick length in seconds
+     */
+    public void step(float dt) {
+        if (replayRecorder != null) {
+            replayRecorder.beginTick(this);
+        }
+        if (rewindBuffer != null) {
+            rewindBuffer.record(this);
+        }
+        previousPlayerX = player.getX();
+        previousPlayerY = player.getY();
+
+        GameManager.getInstance().updateTime(dt);
+        handleInput();
+        if (rewindRequested) {
+            applyRewind();
+            return;
+        }
+        updateWorldController(dt);
+        checkCollisions();
+        incrementFrame();
+
+        // Observer Pattern - Publish GameTimeEvent
+        float elapsedTime = GameManager.getInstance().getGameTime();
+        EventBus.getInstance().publish(new events.GameTimeEvent(elapsedTime));
+    }
+
     public void handleInput() {
         inputHandler.handleInput();
     }
 
+    /**
+     * Keep the last capacityTicks ticks so the rewind key can restore them
+     *
+     * @param capacityTicks How far back rewinding can go
+     * @param stepTicks How far one press of the rewind key goes
+     */
+    public void enableRewind(int capacityTicks, int stepTicks) {
+        this.rewindBuffer = new RewindBuffer(capacityTicks);
+        this.rewindStepTicks = Math.max(1, stepTicks);
+    }
+
+    /**
+     * Called by RewindCommand; applied after input handling of this tick
+     */
+    public void requestRewind() {
+        rewindRequested = rewindBuffer != null;
+    }
+
+    /**
+     * Drop the rewind history (after jumping to an unrelated state)
+     */
+    public void clearRewindHistory() {
+        if (rewindBuffer != null) {
+            rewindBuffer.clear();
+        }
+    }
+
+    public RewindBuffer getRewindBuffer() { return rewindBuffer; }
+
+    /**
+     * Does this key rewind time? (replays look for recorded rewinds)
+     */
+    public boolean isRewindKey(int key) {
+        return inputHandler.getCommand(key) instanceof RewindCommand;
+    }
+
+    private void applyRewind() {
+        rewindRequested = false;
+        // The tick counter keeps counting up, so replays and keyframes
+        // never see the same tick number twice
+        int tick = frameCount;
+        rewindBuffer.rewind(this, rewindStepTicks);
+        frameCount = tick + 1;
+    }
+
     public void updateWorldController(float delta) {
         worldController.update(delta);
     }
 
-    public void checkCollisions() {
-        int playerX = player.getX();
-        int playerY = player.getY();
+    /**
+     * Facade Pattern: the interactive boss battle at the dungeon exit
+     */
+    private void runExitBattle() {
+        // The battle's answers aren't recorded: the replay ends at this tick
+        if (replayRecorder != null) {
+            try {
+                replayRecorder.close();
+            } catch (IOException e) {
+                System.err.println("Replay could not be saved: " + e.getMessage());
+            }
+        }
 
-        // Check if player reached dungeon exit - trigger boss battle
-        if (playerX == dungeonExit.getX() && playerY == dungeonExit.getY()) {
-            boolean isDemoMode = strategy.getName().equals("DEMO");
+        // Let the render thread and a background frame writer finish before the battle prints
+        if (renderThread != null) {
+            renderThread.pauseFrames();
+        }
+        GridRenderer.getRenderTarget().flush();
+
+        boolean isDemoMode = strategy.getName().equals("DEMO");
 
-            // Facade Pattern - One call to run full battle
-            BattleFacade battleFacade = new BattleFacade(player, isDemoMode);
-            boolean playerWon = battleFacade.runFullBattle();
+        // Facade Pattern - One call to run full battle
+        BattleFacade battleFacade = new BattleFacade(player, isDemoMode, randomStreams.stream("battle"));
+        boolean playerWon = battleFacade.runFullBattle();
 
-            if (playerWon) {
-                System.out.println("\n CONGRATULATIONS! You escaped the dungeon!");
-                System.out.println("Final Score: " + GameManager.getInstance().getScore());
+        if (playerWon) {
+            System.out.println("\n CONGRATULATIONS! You escaped the dungeon!");
+            System.out.println("Final Score: " + GameManager.getInstance().getScore());
+            System.exit(0);
+        } else {
+            if (GameManager.getInstance().getHp() <= 0) {
+                System.out.println("\n GAME OVER - Defeated by the boss");
                 System.exit(0);
             } else {
-                if (GameManager.getInstance().getHp() <= 0) {
-                    System.out.println("\n GAME OVER - Defeated by the boss");
-                    System.exit(0);
-                } else {
-                    System.out.println("\n You fled back into the dungeon...");
-                    player.moveUp();
+                System.out.println("\n You fled back into the dungeon...");
+                player.moveUp();
+                worldController.refreshPlayerView();
+                requestFullRedraw();
+                if (renderThread != null) {
+                    renderThread.resumeFrames();
                 }
             }
         }
+    }
 
-        // Check coin collisions
-        for (Coin coin : coins) {
-            if (coin.isCollected()) continue;
+    public void checkCollisions() {
+        int playerX = player.getX();
+        int playerY = player.getY();
 
-            if (playerX == coin.getX() && playerY == coin.getY()) {
-                player.collectCoin(coin.getValue());
-                GameManager.getInstance().addScore(coin.getValue());
-                coin.collect();
+        // Check if player reached dungeon exit - trigger boss battle
+        if (playerX == dungeonExit.getX() && playerY == dungeonExit.getY()) {
+            if (battleOnExit) {
+                runExitBattle();
+            } else {
+                reachedExit = true;
             }
         }
 
-        // Check obstacle collisions
-        for (Obstacle obstacle : worldController.getActiveObstacles()) {
-            int obsX = obstacle.getX();
-            int obsY = obstacle.getY();
+        // Check coin collisions (occupancy lookup instead of scanning all coins)
+        int coinIndex = occupancy.coinAt(playerX, playerY);
+        if (coinIndex >= 0) {
+            Coin coin = coins.get(coinIndex);
+            player.collectCoin(coin.getValue());
+            GameManager.getInstance().addScore(coin.getValue());
+            coin.collect();
+            occupancy.removeCoin(playerX, playerY);
+            coinsCollected++;
+        }
+
+        // Check obstacle collisions (occupancy lookup instead of scanning all obstacles)
+        Obstacle obstacle = occupancy.obstacleAt(playerX, playerY);
+        if (obstacle != null && obstacle.isActive()) {
+            player.takeDamage(obstacle.getDamage());
+            GameManager.getInstance().takeDamage(obstacle.getDamage());
+            damageTaken += obstacle.getDamage();
+            hitsTaken++;
 
-            if (playerX == obsX && playerY == obsY && obstacle.isActive()) {
-                player.takeDamage(obstacle.getDamage());
-                GameManager.getInstance().takeDamage(obstacle.getDamage());
+            lastCollisionMessage = String.format("HIT! -%dHP | Remaining: %d/100",
+                obstacle.getDamage(),
+                GameManager.getInstance().getHp());
 
-                lastCollisionMessage = String.format("HIT! -%dHP | Remaining: %d/100",
-                    obstacle.getDamage(),
-                    GameManager.getInstance().getHp());
+            obstacle.setActive(false);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Full simulation state (replay keyframes, rewind snapshots)
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Upper bound for the size of saveState() output right now
+     */
+    public int getStateSizeHint() {
+        return 256 + coins.size() + worldController.getObstacleCount() * 48
+            + randomStreams.getStreamCount() * 96
+            + occupancy.getFreeCells().getStateSizeHint();
+    }
 
-                obstacle.setActive(false);
+    /**
+     * Write everything step() depends on: tick, player, GameManager values,
+     * coins, random streams, all obstacles and the spawn chunks worked out
+     * so far (they shape the next spawn pick). Restoring it and replaying
+     * the same inputs reproduces the same ticks.
+     *
+     * Not included: observers' own state (achievement progress, HUD list).
+     */
+    public void saveState(ByteBuffer out) {
+        out.putInt(frameCount);
+        out.putInt(previousPlayerX).putInt(previousPlayerY);
+        out.putInt(player.getX()).putInt(player.getY());
+        out.putInt(player.getHealth()).putInt(player.getScore());
+
+        GameManager manager = GameManager.getInstance();
+        out.putInt(manager.getScore()).putFloat(manager.getGameTime());
+        out.putInt(manager.getLevel()).putInt(manager.getHp());
+        out.put((byte) (manager.isGameOver() ? 1 : 0));
+
+        out.putInt(coins.size());
+        for (Coin coin : coins) {
+            out.put((byte) (coin.isCollected() ? 1 : 0));
+        }
+
+        out.put((byte) (reachedExit ? 1 : 0));
+        out.putInt(damageTaken).putInt(hitsTaken).putInt(coinsCollected);
+
+        randomStreams.saveState(out);
+        worldController.saveState(out);
+        occupancy.getFreeCells().saveState(out);
+    }
+
+    /**
+     * Restore a state written by saveState() (same level must be loaded)
+     */
+    public void loadState(ByteBuffer in) {
+        frameCount = in.getInt();
+        previousPlayerX = in.getInt();
+        previousPlayerY = in.getInt();
+        int x = in.getInt();
+        int y = in.getInt();
+        player.restore(x, y, in.getInt(), in.getInt());
+
+        int score = in.getInt();
+        float gameTime = in.getFloat();
+        int level = in.getInt();
+        int hp = in.getInt();
+        GameManager.getInstance().restore(score, gameTime, level, hp, in.get() != 0);
+
+        occupancy.resize(DungeonMap.getWidth(), DungeonMap.getHeight());
+        int coinCount = in.getInt();
+        for (int i = 0; i < coinCount; i++) {
+            Coin coin = coins.get(i);
+            coin.setCollected(in.get() != 0);
+            if (!coin.isCollected()) {
+                occupancy.addCoin(i, coin.getX(), coin.getY());
             }
         }
+
+        reachedExit = in.get() != 0;
+        damageTaken = in.getInt();
+        hitsTaken = in.getInt();
+        coinsCollected = in.getInt();
+
+        randomStreams.loadState(in);
+        worldController.loadState(in);
+        // The grid was reset above, so this is a fresh set over the restored tiles
+        occupancy.getFreeCells().loadState(in);
+        worldController.refreshPlayerView();
+
+        lastCollisionMessage = "";
+        requestFullRedraw();
     }
 
     public void incrementFrame() {
@@ -166,12 +435,50 @@ public class GameLogic {
     public Player getPlayer() { return player; }
     public int getPlayerX() { return player.getX(); }
     public int getPlayerY() { return player.getY(); }
+    public int getPreviousPlayerX() { return previousPlayerX; }
+    public int getPreviousPlayerY() { return previousPlayerY; }
     public List<Coin> getCoins() { return coins; }
     public int getFrameCount() { return frameCount; }
+
+    /**
+     * Ask the renderer to repaint everything on the next frame
+     * (the screen was disturbed, e.g. by battle output or a terminal resize)
+     */
+    public void requestFullRedraw() { redrawGeneration++; }
+    public int getRedrawGeneration() { return redrawGeneration; }
     public WorldController getWorldController() { return worldController; }
+    public OccupancyGrid getOccupancy() { return occupancy; }
     public String getLastCollisionMessage() { return lastCollisionMessage; }
     public void clearCollisionMessage() { lastCollisionMessage = ""; }
     public HUD getHUD() { return hud; }
+    public RandomStreams getRandomStreams() { return randomStreams; }
+
+    /**
+     * false = reaching the exit only sets hasReachedExit() (no battle, no System.exit)
+     */
+    public void setBattleOnExit(boolean battleOnExit) { this.battleOnExit = battleOnExit; }
+
+    /**
+     * Record every following tick into a replay (keys are captured by
+     * wrapping the current InputSource)
+     */
+    public void setReplayRecorder(ReplayRecorder recorder) {
+        this.replayRecorder = recorder;
+        inputHandler.setSource(new RecordingInputSource(inputHandler.getSource(), recorder));
+    }
+
+    /**
+     * The thread drawing this session's frames; paused while the battle
+     * screen writes to the terminal
+     */
+    public void setRenderThread(RenderThread renderThread) {
+        this.renderThread = renderThread;
+    }
+
+    public boolean hasReachedExit() { return reachedExit; }
+    public int getDamageTaken() { return damageTaken; }
+    public int getHitsTaken() { return hitsTaken; }
+    public int getCoinsCollected() { return coinsCollected; }
     public DungeonExit getDungeonExit() { return dungeonExit; }
 
     public void printPoolStats() {
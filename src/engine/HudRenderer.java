@@ -0,0 +1,180 @@
+package engine;
+
+import utils.GridRenderer;
+
+/**
+ * HudRenderer - Draws the HUD box and achievements panel next to the grid
+ *
+ * Performance: Cached, diffed rendering
+ * - Box lines are precomputed constants, drawn only after invalidate()
+ * - Each field remembers the value it last showed; unchanged fields emit nothing
+ * - Changed fields are formatted into a reusable char buffer (no String.format)
+ * - The achievements panel is only redrawn when the snapshot's count grows
+ * => On idle frames the HUD sends zero bytes
+ *
+ * The "last shown" values describe one terminal, so each FrameRenderer owns
+ * its HudRenderer and only ever touches it from the thread that renders.
+ */
+public class HudRenderer {
+    private static final int START_COL = 28;
+    private static final int START_ROW = 2;
+    private static final int ACHIEVEMENT_ROW = START_ROW + 8;
+
+    // Every HUD line is exactly this wide (box border included)
+    private static final int LINE_WIDTH = 30;
+
+    private static final String BOX_TOP = "╔════════════════════════════╗";
+    private static final String BOX_SEPARATOR = "╠════════════════════════════╣";
+    private static final String BOX_BOTTOM = "╚════════════════════════════╝";
+    private static final String HUD_TITLE = "║       HUD DISPLAY          ║";
+    private static final String ACHIEVEMENTS_TITLE = "║      ACHIEVEMENTS          ║";
+    private static final String NO_ACHIEVEMENTS = "║  No achievements yet...    ║";
+
+    private static final char[] SCORE_LABEL = "║  Score: ".toCharArray();
+    private static final char[] HP_LABEL = "║  HP: ".toCharArray();
+    private static final char[] HP_SUFFIX = " / 100".toCharArray();
+    private static final char[] TIME_LABEL = "║  Time: ".toCharArray();
+    private static final char[] TIME_SUFFIX = "s".toCharArray();
+    private static final char[] LEVEL_LABEL = "║  Level: ".toCharArray();
+    private static final char[] NO_SUFFIX = new char[0];
+
+    // Sentinel: field has not been drawn since the last invalidate()
+    private static final int NOT_DRAWN = Integer.MIN_VALUE;
+
+    private boolean chromeDirty = true;
+    private int shownAchievementCount = NOT_DRAWN;
+    private int shownScore = NOT_DRAWN;
+    private int shownHp = NOT_DRAWN;
+    private int shownTime = NOT_DRAWN;
+    private int shownLevel = NOT_DRAWN;
+
+    // Reusable line buffer for formatted fields
+    private final char[] line = new char[LINE_WIDTH];
+    private final char[] digits = new char[11];
+
+    /**
+     * Forget what is on screen - next draw() repaints the whole HUD.
+     * Needed after the screen was cleared or scrolled.
+     */
+    public void invalidate() {
+        chromeDirty = true;
+        shownAchievementCount = NOT_DRAWN;
+        shownScore = NOT_DRAWN;
+        shownHp = NOT_DRAWN;
+        shownTime = NOT_DRAWN;
+        shownLevel = NOT_DRAWN;
+    }
+
+    /**
+     * Draw the HUD for a snapshot (only what changed since the last draw)
+     */
+    public void draw(WorldSnapshot snapshot, GridRenderer out) {
+        int score = snapshot.score;
+        int time = (int) snapshot.gameTime;
+        int level = snapshot.level;
+        int hp = snapshot.hp;
+
+        int col = START_COL - 1;
+
+        // Draw main HUD box (static lines, only after invalidate)
+        if (chromeDirty) {
+            out.putText(BOX_TOP, col, START_ROW - 1);
+            out.putText(HUD_TITLE, col, START_ROW);
+            out.putText(BOX_SEPARATOR, col, START_ROW + 1);
+            out.putText(BOX_BOTTOM, col, START_ROW + 6);
+            chromeDirty = false;
+        }
+
+        // Fields: only the ones whose value changed
+        if (score != shownScore) {
+            drawField(out, SCORE_LABEL, score, NO_SUFFIX, START_ROW + 2);
+            shownScore = score;
+        }
+        if (hp != shownHp) {
+            drawField(out, HP_LABEL, hp, HP_SUFFIX, START_ROW + 3);
+            shownHp = hp;
+        }
+        if (time != shownTime) {
+            drawField(out, TIME_LABEL, time, TIME_SUFFIX, START_ROW + 4);
+            shownTime = time;
+        }
+        if (level != shownLevel) {
+            drawField(out, LEVEL_LABEL, level, NO_SUFFIX, START_ROW + 5);
+            shownLevel = level;
+        }
+
+        // Achievements only ever get added, so a new count means HUD.onEvent() added one
+        if (snapshot.achievementCount != shownAchievementCount) {
+            drawAchievements(out, snapshot.achievements, snapshot.achievementCount, col);
+            shownAchievementCount = snapshot.achievementCount;
+        }
+    }
+
+    /**
+     * Draw achievements section (only called when the list changed)
+     */
+    private void drawAchievements(GridRenderer out, String[] visible, int count, int col) {
+        out.putText(BOX_TOP, col, ACHIEVEMENT_ROW);
+        out.putText(ACHIEVEMENTS_TITLE, col, ACHIEVEMENT_ROW + 1);
+        out.putText(BOX_SEPARATOR, col, ACHIEVEMENT_ROW + 2);
+
+        if (count == 0) {
+            out.putText(NO_ACHIEVEMENTS, col, ACHIEVEMENT_ROW + 3);
+            out.putText(BOX_BOTTOM, col, ACHIEVEMENT_ROW + 4);
+        } else {
+            int row = ACHIEVEMENT_ROW + 3;
+            for (int i = 0; i < Math.min(HUD.VISIBLE_ACHIEVEMENTS, count); i++) {
+                String achievement = visible[i];
+                if (achievement.length() > 26) {
+                    achievement = achievement.substring(0, 23) + "...";
+                }
+                out.putText(String.format("║ %-26s ║", achievement), col, row++);
+            }
+
+            if (count > HUD.VISIBLE_ACHIEVEMENTS) {
+                out.putText(String.format("║ ... and %-18s ║", (count - HUD.VISIBLE_ACHIEVEMENTS) + " more"), col, row++);
+            }
+
+            out.putText(BOX_BOTTOM, col, row);
+        }
+    }
+
+    /**
+     * Format "label value suffix" padded to LINE_WIDTH into the reusable
+     * line buffer and draw it. No Strings are created.
+     */
+    private void drawField(GridRenderer out, char[] label, int value, char[] suffix, int row) {
+        int length = 0;
+        System.arraycopy(label, 0, line, 0, label.length);
+        length += label.length;
+
+        length = appendInt(value, length);
+
+        System.arraycopy(suffix, 0, line, length, suffix.length);
+        length += suffix.length;
+
+        while (length < LINE_WIDTH - 1) {
+            line[length++] = ' ';
+        }
+        line[LINE_WIDTH - 1] = '║';
+
+        out.putChars(line, LINE_WIDTH, START_COL - 1, row);
+    }
+
+    private int appendInt(int value, int position) {
+        if (value < 0) {
+            line[position++] = '-';
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (char) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        // Longest label (10) + int (11) + suffix (6) still fits inside the border
+        for (int i = count - 1; i >= 0; i--) {
+            line[position++] = digits[i];
+        }
+        return position;
+    }
+}
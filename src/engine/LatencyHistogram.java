@@ -0,0 +1,94 @@
+package engine;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram - Fixed-size log-linear histogram of nanosecond values
+ *
+ * Each power of two is split into SUB_BUCKETS linear buckets, so the
+ * relative error of a reported percentile stays below 1/SUB_BUCKETS
+ * (12.5%) from 1ns up to hours. Recording is one array increment: no
+ * allocation and no sorting, cheap enough to call every frame.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[64 * SUB_BUCKETS];
+    private long totalCount = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    /**
+     * @param nanos Value to record (negative values count as 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        totalCount++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param percentile 0..100 (e.g. 99.9)
+     * @return Upper bound of the bucket holding that percentile, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(totalCount * Math.min(100.0, percentile) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(max, upperBoundOf(i));
+            }
+        }
+        return max;
+    }
+
+    public long getCount() { return totalCount; }
+    public long getMin() { return totalCount == 0 ? 0 : min; }
+    public long getMax() { return max; }
+    public double getMean() { return totalCount == 0 ? 0 : (double) sum / totalCount; }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * One-line summary in microseconds, e.g. for end-of-run reports
+     */
+    public String summarizeMicros() {
+        return String.format("p50=%.0fus p99=%.0fus p99.9=%.0fus max=%.0fus (n=%d)",
+            getPercentile(50) / 1000.0, getPercentile(99) / 1000.0,
+            getPercentile(99.9) / 1000.0, getMax() / 1000.0, getCount());
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long width = 1L << (magnitude - SUB_BUCKET_BITS);
+        return (1L << magnitude) + (sub + 1) * width - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package engine;
+
+/**
+ * LoopConfig - How GameEngine's main loop runs
+ *
+ * - targetFps:        frames per second to pace to (UNLIMITED = no pacing)
+ * - pacingStrategy:   how to wait out the rest of a frame (see FramePacer)
+ * - tickRate:         fixed simulation ticks per second
+ * - maxStepsPerFrame: catch-up limit after a slow frame
+ * - stopCondition:    when the run ends (see StopCondition)
+ *
+ * new LoopConfig() is the normal game (60 FPS, 3000 ticks);
+ * LoopConfig.benchmark(...) runs uncapped to measure headroom.
+ */
+public class LoopConfig {
+    public static final int UNLIMITED = 0;
+
+    private int targetFps = 60;
+    private FramePacer.Strategy pacingStrategy = FramePacer.Strategy.HYBRID;
+    private int tickRate = 60;
+    private int maxStepsPerFrame = 5;
+    private StopCondition stopCondition = StopCondition.afterTicks(3000);
+
+    public LoopConfig() {
+    }
+
+    /**
+     * @param targetFps Frames per second, or UNLIMITED
+     * @param stopCondition When the run ends
+     */
+    public LoopConfig(int targetFps, StopCondition stopCondition) {
+        setTargetFps(targetFps);
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * Uncapped loop: no frame pacing, run until stopCondition
+     */
+    public static LoopConfig benchmark(StopCondition stopCondition) {
+        return new LoopConfig(UNLIMITED, stopCondition);
+    }
+
+    public int getTargetFps() { return targetFps; }
+    public boolean isUnlimited() { return targetFps == UNLIMITED; }
+    public FramePacer.Strategy getPacingStrategy() { return pacingStrategy; }
+    public int getTickRate() { return tickRate; }
+    public int getMaxStepsPerFrame() { return maxStepsPerFrame; }
+    public StopCondition getStopCondition() { return stopCondition; }
+
+    public void setTargetFps(int targetFps) {
+        this.targetFps = Math.max(UNLIMITED, targetFps);
+    }
+
+    public void setPacingStrategy(FramePacer.Strategy pacingStrategy) {
+        this.pacingStrategy = pacingStrategy;
+    }
+
+    /**
+     * Lower it on constrained hosts - gameplay speed stays the same,
+     * only the simulation granularity changes.
+     */
+    public void setTickRate(int tickRate) {
+        this.tickRate = Math.max(1, tickRate);
+    }
+
+    public void setMaxStepsPerFrame(int maxStepsPerFrame) {
+        this.maxStepsPerFrame = Math.max(1, maxStepsPerFrame);
+    }
+
+    public void setStopCondition(StopCondition stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+}
@@ -0,0 +1,315 @@
+package engine;
+
+import obstacles.Obstacle;
+import world.DungeonMap;
+import world.TileIndex;
+
+import java.util.Arrays;
+
+/**
+ * OccupancyGrid - Per-tile index of what stands where
+ *
+ * Primitive int arrays keyed by tile:
+ * - coin page     = coin index + 1      (0 = no coin)
+ * - obstacle page = obstacle slot + 1   (0 = no obstacle)
+ *
+ * "What is on this tile?" becomes one array read instead of a scan over
+ * every coin and every obstacle. WorldController and GameLogic keep it up
+ * to date whenever something spawns, moves, is collected or is released.
+ *
+ * Paged: the world is split into PAGE_SIZE x PAGE_SIZE pages that are only
+ * allocated once something stands on them. Coins and obstacles are sparse,
+ * so a 4096x4096 world costs a page table plus a few pages, not two 64MB
+ * arrays. A 25x25 map is a single page per layer.
+ *
+ * Obstacle slots: obstacles live in a small slot table so the tile array
+ * can stay primitive. Slots are recycled like the obstacle pools.
+ * The tile holds the first slot standing there; further obstacles on the
+ * same tile are chained through nextOnTile, so stacked obstacles never
+ * hide each other and "is anything here?" stays exact.
+ *
+ * Free cells: getFreeCells() picks the tiles an obstacle may spawn on.
+ * It works out chunks on demand (asking isSpawnable()) and is updated
+ * here whenever a tile's obstacle chain becomes empty or non-empty.
+ */
+public class OccupancyGrid {
+    private static final int PAGE_BITS = 5;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private int width;
+    private int height;
+    private int pagesX;
+    private int[][] coinPages;
+    private int[][] obstaclePages;
+
+    private Obstacle[] slots = new Obstacle[64];
+    // Next slot + 1 on the same tile (0 = end of chain)
+    private int[] nextOnTile = new int[64];
+    private int[] freeSlots = new int[64];
+    private int freeCount = 0;
+    private int slotCount = 0;
+
+    // Spawnable tiles (null = not created yet) and the map they belong to
+    private FreeCellSet freeCells;
+    private TileIndex freeCellsFor;
+    // Tiles never offered for spawning (the dungeon exit), as x, y pairs
+    private int[] reserved = new int[0];
+
+    public OccupancyGrid(int width, int height) {
+        resize(width, height);
+    }
+
+    /**
+     * Drop everything and size the grid for a (new) map
+     */
+    public void resize(int width, int height) {
+        // Chunks are worked out again on demand from the re-added obstacles
+        freeCells = null;
+        this.width = width;
+        this.height = height;
+        this.pagesX = (width + PAGE_MASK) >>> PAGE_BITS;
+        int pagesY = (height + PAGE_MASK) >>> PAGE_BITS;
+        this.coinPages = new int[pagesX * pagesY][];
+        this.obstaclePages = new int[pagesX * pagesY][];
+        Arrays.fill(slots, null);
+        freeCount = 0;
+        slotCount = 0;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Coins
+    // ═══════════════════════════════════════════════════════════════
+
+    public void addCoin(int coinIndex, int x, int y) {
+        if (inBounds(x, y)) {
+            write(coinPages, x, y, coinIndex + 1);
+        }
+    }
+
+    public void removeCoin(int x, int y) {
+        if (inBounds(x, y)) {
+            write(coinPages, x, y, 0);
+        }
+    }
+
+    /**
+     * @return Index of the coin on this tile, or -1
+     */
+    public int coinAt(int x, int y) {
+        if (!inBounds(x, y)) {
+            return -1;
+        }
+        return read(coinPages, x, y) - 1;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Obstacles
+    // ═══════════════════════════════════════════════════════════════
+
+    public void addObstacle(Obstacle obstacle) {
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : allocateSlot();
+        slots[slot] = obstacle;
+        link(slot, obstacle.getX(), obstacle.getY());
+    }
+
+    /**
+     * Obstacle moved from (oldX, oldY) to its current position
+     */
+    public void moveObstacle(Obstacle obstacle, int oldX, int oldY) {
+        int newX = obstacle.getX();
+        int newY = obstacle.getY();
+        if (newX == oldX && newY == oldY) {
+            return;
+        }
+        int slot = slotOf(obstacle, oldX, oldY);
+        if (slot < 0) {
+            return;
+        }
+        unlink(slot, oldX, oldY);
+        link(slot, newX, newY);
+    }
+
+    public void removeObstacle(Obstacle obstacle) {
+        int x = obstacle.getX();
+        int y = obstacle.getY();
+        int slot = slotOf(obstacle, x, y);
+        if (slot < 0) {
+            return;
+        }
+        unlink(slot, x, y);
+        slots[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * @return Obstacle standing on this tile, or null
+     */
+    public Obstacle obstacleAt(int x, int y) {
+        if (!inBounds(x, y)) {
+            return null;
+        }
+        int slot = read(obstaclePages, x, y);
+        return slot == 0 ? null : slots[slot - 1];
+    }
+
+    public boolean hasObstacle(int x, int y) {
+        return inBounds(x, y) && read(obstaclePages, x, y) != 0;
+    }
+
+    /**
+     * Is any obstacle other than 'self' on this tile?
+     */
+    public boolean hasOtherObstacle(int x, int y, Obstacle self) {
+        if (!inBounds(x, y)) {
+            return false;
+        }
+        for (int slot = read(obstaclePages, x, y); slot != 0; slot = nextOnTile[slot - 1]) {
+            if (slots[slot - 1] != self) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Spawnable tiles
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Keep a tile out of the free cells for good (e.g. the dungeon exit)
+     */
+    public void reserveTile(int x, int y) {
+        reserved = Arrays.copyOf(reserved, reserved.length + 2);
+        reserved[reserved.length - 2] = x;
+        reserved[reserved.length - 1] = y;
+        if (freeCells != null) {
+            freeCells.remove(x, y);
+        }
+    }
+
+    /**
+     * Walkable, non-border, non-reserved tiles with no obstacle on them.
+     * Creating it reads only the chunk directory; tiles are read per chunk
+     * when a pick first lands there.
+     */
+    public FreeCellSet getFreeCells() {
+        TileIndex tiles = DungeonMap.getTileIndex();
+        if (freeCells == null || freeCellsFor != tiles) {
+            freeCellsFor = tiles;
+            freeCells = new FreeCellSet(tiles, this::isSpawnable);
+        }
+        return freeCells;
+    }
+
+    /**
+     * Could an obstacle spawn here right now?
+     */
+    public boolean isSpawnable(int x, int y) {
+        TileIndex tiles = DungeonMap.getTileIndex();
+        if (!inBounds(x, y) || hasObstacle(x, y) || !tiles.isWalkable(x, y)
+                || tiles.hasFlag(x, y, TileIndex.BORDER)) {
+            return false;
+        }
+        for (int i = 0; i < reserved.length; i += 2) {
+            if (reserved[i] == x && reserved[i + 1] == y) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Tile has no obstacle any more: free it if obstacles may spawn there
+    private void releaseTile(int x, int y) {
+        if (isSpawnable(x, y)) {
+            freeCells.add(x, y);
+        }
+    }
+
+    private int slotOf(Obstacle obstacle, int x, int y) {
+        // Fast path: the tile knows the slot
+        if (inBounds(x, y)) {
+            for (int slot = read(obstaclePages, x, y); slot != 0; slot = nextOnTile[slot - 1]) {
+                if (slots[slot - 1] == obstacle) {
+                    return slot - 1;
+                }
+            }
+        }
+        // Off-map obstacles: small linear search over the slot table
+        for (int i = 0; i < slotCount; i++) {
+            if (slots[i] == obstacle) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int allocateSlot() {
+        if (slotCount == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+            nextOnTile = Arrays.copyOf(nextOnTile, slots.length);
+        }
+        return slotCount++;
+    }
+
+    // Put a slot at the head of its tile's chain
+    private void link(int slot, int x, int y) {
+        nextOnTile[slot] = 0;
+        if (inBounds(x, y)) {
+            nextOnTile[slot] = read(obstaclePages, x, y);
+            write(obstaclePages, x, y, slot + 1);
+            if (freeCells != null) {
+                freeCells.remove(x, y);
+            }
+        }
+    }
+
+    private void unlink(int slot, int x, int y) {
+        if (!inBounds(x, y)) {
+            return;
+        }
+        int head = read(obstaclePages, x, y);
+        if (head == slot + 1) {
+            write(obstaclePages, x, y, nextOnTile[slot]);
+            if (nextOnTile[slot] == 0 && freeCells != null) {
+                releaseTile(x, y);
+            }
+            return;
+        }
+        for (int previous = head; previous != 0; previous = nextOnTile[previous - 1]) {
+            if (nextOnTile[previous - 1] == slot + 1) {
+                nextOnTile[previous - 1] = nextOnTile[slot];
+                return;
+            }
+        }
+    }
+
+    // Unallocated pages read as empty; they are allocated on the first non-zero write
+    private int read(int[][] pages, int x, int y) {
+        int[] page = pages[(y >>> PAGE_BITS) * pagesX + (x >>> PAGE_BITS)];
+        return page == null ? 0 : page[((y & PAGE_MASK) << PAGE_BITS) | (x & PAGE_MASK)];
+    }
+
+    private void write(int[][] pages, int x, int y, int value) {
+        int pageIndex = (y >>> PAGE_BITS) * pagesX + (x >>> PAGE_BITS);
+        int[] page = pages[pageIndex];
+        if (page == null) {
+            if (value == 0) {
+                return;
+            }
+            page = new int[PAGE_SIZE * PAGE_SIZE];
+            pages[pageIndex] = page;
+        }
+        page[((y & PAGE_MASK) << PAGE_BITS) | (x & PAGE_MASK)] = value;
+    }
+
+    private boolean inBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+}
@@ -1,11 +1,18 @@
 package engine;
 
+import utils.GridRenderer;
+
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
 import java.util.List;
 
 /**
  * PerformanceMonitor - Tracks frame times and detects GC pauses
+ *
+ * Output goes through GridRenderer, so it respects the active RenderTarget
+ * (nothing reaches the terminal in headless runs). With a RenderThread
+ * attached, each line waits for the frame being drawn and is written
+ * between two frames.
  */
 public class PerformanceMonitor {
     private static final float TARGET_FRAME_TIME = 0.016f;
@@ -22,6 +29,16 @@ public class PerformanceMonitor {
 
     private static final int WARNING_START_ROW = 20;
     private static final int WARNING_START_COL = 28;
+    private static final String CLEAR_TO_END_OF_LINE = "\033[K";
+
+    // Frame pacing jitter (set by GameEngine when it paces frames)
+    private FramePacer pacer;
+
+    // Set by GameEngine when frames are drawn on a RenderThread
+    private RenderThread renderThread;
+
+    // Work time per frame (update + draw, pacing excluded) for percentile reports
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
 
     public PerformanceMonitor() {
         this.gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
@@ -42,16 +59,25 @@ public class PerformanceMonitor {
 
         if (frameTime > SLOW_FRAME_THRESHOLD) {
             slowFrameCount++;
-            System.out.print(String.format("\033[%d;%dH\033[K", WARNING_START_ROW, WARNING_START_COL));
-            System.out.print(String.format(
+            drawLine(CLEAR_TO_END_OF_LINE + String.format(
                 "SLOW FRAME #%d: %.1fms (%.1f FPS)",
-                frameCount, frameTime * 1000, 1.0f / frameTime));
-            System.out.flush();
+                frameCount, frameTime * 1000, 1.0f / frameTime), WARNING_START_ROW, WARNING_START_COL);
         }
 
         checkGarbageCollection();
     }
 
+    /**
+     * Record a frame's work time without drawing anything (end-of-run statistics)
+     */
+    public void recordFrameTime(long nanos) {
+        frameTimes.record(nanos);
+    }
+
+    public LatencyHistogram getFrameTimes() {
+        return frameTimes;
+    }
+
     private void checkGarbageCollection() {
         long currentGcCount = 0;
         long currentGcTime = 0;
@@ -63,9 +89,8 @@ public class PerformanceMonitor {
 
         if (currentGcCount > lastGcCount) {
             long gcPauseMs = currentGcTime - lastGcTime;
-            System.out.print(String.format("\033[%d;%dH\033[K", WARNING_START_ROW + 1, WARNING_START_COL));
-            System.out.print(String.format("GC PAUSE: %dms (%d collections)", gcPauseMs, currentGcCount));
-            System.out.flush();
+            drawLine(CLEAR_TO_END_OF_LINE + String.format("GC PAUSE: %dms (%d collections)", gcPauseMs, currentGcCount),
+                WARNING_START_ROW + 1, WARNING_START_COL);
 
             lastGcCount = currentGcCount;
             lastGcTime = currentGcTime;
@@ -81,29 +106,35 @@ public class PerformanceMonitor {
             int startCol = 28;
             int startRow = 11;
 
-            System.out.print(String.format("\033[%d;%dH", startRow, startCol));
-            System.out.print("╔════════════════════════════╗");
-            System.out.print(String.format("\033[%d;%dH", startRow + 1, startCol));
-            System.out.print("║   PERFORMANCE SUMMARY      ║");
-            System.out.print(String.format("\033[%d;%dH", startRow + 2, startCol));
-            System.out.print("╠════════════════════════════╣");
-            System.out.print(String.format("\033[%d;%dH", startRow + 3, startCol));
-            System.out.print(String.format("║  Frame: %-19d║", frameCount));
-            System.out.print(String.format("\033[%d;%dH", startRow + 4, startCol));
-            System.out.print(String.format("║  Avg: %.1fms (%.1f FPS)%s║",
-                avgFrameTime * 1000, avgFps, getPadding(avgFrameTime * 1000, avgFps)));
-            System.out.print(String.format("\033[%d;%dH", startRow + 5, startCol));
-            System.out.print(String.format("║  Worst: %.1fms (%.1f FPS)%s║",
+            drawLine("╔════════════════════════════╗", startRow, startCol);
+            drawLine("║   PERFORMANCE SUMMARY      ║", startRow + 1, startCol);
+            drawLine("╠════════════════════════════╣", startRow + 2, startCol);
+            drawLine(String.format("║  Frame: %-19d║", frameCount), startRow + 3, startCol);
+            drawLine(String.format("║  Avg: %.1fms (%.1f FPS)%s║",
+                avgFrameTime * 1000, avgFps, getPadding(avgFrameTime * 1000, avgFps)), startRow + 4, startCol);
+            drawLine(String.format("║  Worst: %.1fms (%.1f FPS)%s║",
                 worstFrameTime * 1000, 1.0f / worstFrameTime,
-                getPadding(worstFrameTime * 1000, 1.0f / worstFrameTime)));
-            System.out.print(String.format("\033[%d;%dH", startRow + 6, startCol));
-            System.out.print(String.format("║  Slow: %d (%.1f%%)%s║",
-                slowFrameCount, slowFramePercent, getPaddingForSlow(slowFrameCount, slowFramePercent)));
-            System.out.print(String.format("\033[%d;%dH", startRow + 7, startCol));
-            System.out.print(String.format("║  Target: %.1fms (60 FPS)   ║", TARGET_FRAME_TIME * 1000));
-            System.out.print(String.format("\033[%d;%dH", startRow + 8, startCol));
-            System.out.print("╚════════════════════════════╝");
-            System.out.flush();
+                getPadding(worstFrameTime * 1000, 1.0f / worstFrameTime)), startRow + 5, startCol);
+            drawLine(String.format("║  Slow: %d (%.1f%%)%s║",
+                slowFrameCount, slowFramePercent, getPaddingForSlow(slowFrameCount, slowFramePercent)), startRow + 6, startCol);
+            drawLine(String.format("║  Target: %.1fms (60 FPS)   ║", TARGET_FRAME_TIME * 1000), startRow + 7, startCol);
+            drawLine("╚════════════════════════════╝", startRow + 8, startCol);
+        }
+    }
+
+    /**
+     * Draw text at a 1-based terminal row/column (same numbering as before)
+     */
+    private void drawLine(String text, int row, int col) {
+        if (renderThread == null) {
+            GridRenderer.drawText(text, col - 1, row - 1);
+            return;
+        }
+        renderThread.pauseFrames();
+        try {
+            GridRenderer.drawText(text, col - 1, row - 1);
+        } finally {
+            renderThread.resumeFrames();
         }
     }
 
@@ -119,6 +150,37 @@ public class PerformanceMonitor {
         return " ".repeat(Math.max(0, padding));
     }
 
+    /**
+     * Track the wake-up precision of this pacer
+     */
+    public void setPacer(FramePacer pacer) {
+        this.pacer = pacer;
+    }
+
+    /**
+     * Thread drawing the frames (null = frames are drawn by the caller)
+     */
+    public void setRenderThread(RenderThread renderThread) {
+        this.renderThread = renderThread;
+    }
+
+    /**
+     * @return Wake-up error histogram of the attached pacer, or null
+     */
+    public LatencyHistogram getPacingJitter() {
+        return pacer == null ? null : pacer.getWakeUpError();
+    }
+
+    /**
+     * One-line jitter report, e.g. "HYBRID: p50=12us p99=80us ..."
+     */
+    public String getPacingSummary() {
+        if (pacer == null) {
+            return "Pacing: off";
+        }
+        return "Pacing " + pacer.getStrategy() + " wake-up error: " + pacer.getWakeUpError().summarizeMicros();
+    }
+
     public int getFrameCount() { return frameCount; }
     public long getTotalGcTime() { return lastGcTime; }
 }
@@ -0,0 +1,106 @@
+package engine;
+
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RenderThread - Encodes and writes frames off the simulation thread
+ *
+ * The game loop publishes WorldSnapshots into a TripleBuffer and wakes this
+ * thread. It renders the newest snapshot and goes back to sleep.
+ *
+ * If stdout blocks (slow terminal, SSH), only this thread waits. The
+ * simulation keeps ticking at a stable rate; snapshots published in the
+ * meantime simply replace each other, so the renderer skips straight to
+ * the newest one.
+ *
+ * Anything else that writes to the terminal while this thread runs (the
+ * battle screen, PerformanceMonitor) brackets its output with
+ * pauseFrames() and resumeFrames(), so it never lands inside a frame.
+ */
+public class RenderThread extends Thread {
+    private final TripleBuffer<WorldSnapshot> snapshots;
+    private final FrameRenderer renderer;
+    private volatile boolean running = true;
+    private long framesRendered = 0;
+
+    // Held while a frame is drawn, and by whoever paused the renderer
+    private final ReentrantLock frameLock = new ReentrantLock();
+
+    public RenderThread(TripleBuffer<WorldSnapshot> snapshots, FrameRenderer renderer) {
+        super("render");
+        this.snapshots = snapshots;
+        this.renderer = renderer;
+        setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (!renderNewest()) {
+                // Nothing new - sleep until the simulation publishes (see wake())
+                LockSupport.park(this);
+            }
+        }
+        // Draw the final state before exiting
+        renderNewest();
+    }
+
+    private boolean renderNewest() {
+        frameLock.lock();
+        try {
+            if (!snapshots.acquire()) {
+                return false;
+            }
+            renderer.render(snapshots.front());
+            framesRendered++;
+            return true;
+        } finally {
+            frameLock.unlock();
+        }
+    }
+
+    /**
+     * Called by the simulation thread after publishing a snapshot
+     */
+    public void wake() {
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Wait for the frame being drawn (if any) and keep the renderer from
+     * starting another until resumeFrames(). Called by the thread that wants to
+     * write to the terminal itself.
+     */
+    public void pauseFrames() {
+        frameLock.lock();
+    }
+
+    /**
+     * Let the renderer continue (same thread that called pauseFrames())
+     */
+    public void resumeFrames() {
+        frameLock.unlock();
+        wake();
+    }
+
+    /**
+     * Stop after the current frame and wait for the thread to finish
+     */
+    public void shutdown() {
+        running = false;
+        wake();
+        try {
+            join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Only valid after shutdown()
+     */
+    public long getFramesRendered() {
+        return framesRendered;
+    }
+}
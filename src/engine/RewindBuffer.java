@@ -0,0 +1,239 @@
+package engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * RewindBuffer - The last few seconds of play, for instant rewind
+ *
+ * Command.undo() can only put the player back one step. Rewinding has to
+ * restore everything (obstacles, coins, HP, pools, random streams), so
+ * every tick the whole GameLogic.saveState() is recorded here.
+ *
+ * Memory is a fraction of keeping every state in full:
+ * - Only the newest state is kept in full
+ * - Each older tick is stored as the XOR with the tick after it; two
+ *   consecutive ticks differ in a handful of bytes, so the XOR is mostly
+ *   zeros and run-length encodes to a few dozen bytes
+ * - Deltas are encoded into one shared worst-case scratch buffer and then
+ *   copied into their ring slot; a slot is only reallocated when a delta
+ *   doesn't fit, so each slot ends up about the size of its deltas
+ * - A fixed ring of capacity deltas; the oldest tick is overwritten
+ *
+ * Stepping back k ticks XORs k deltas into the newest state and loads the
+ * result once - no re-simulation.
+ */
+public class RewindBuffer {
+    public static final int DEFAULT_SECONDS = 10;
+    // How far one press of the rewind key goes
+    public static final int DEFAULT_STEP_SECONDS = 2;
+
+    private final int capacity;
+    private final byte[][] deltas;
+    private final int[] deltaLengths;
+    // Length of the state the delta leads back to
+    private final int[] previousLengths;
+    private int head = 0;   // Slot the next delta goes into
+    private int count = 0;
+
+    // Newest recorded state in full
+    private byte[] current = new byte[1024];
+    private int currentLength = -1;
+
+    private ByteBuffer scratch = ByteBuffer.allocate(1024);
+    // Worst-case sized encoding area shared by all slots
+    private byte[] deltaScratch = new byte[0];
+    private final int[] cursor = new int[1];
+
+    /**
+     * @param capacity Ticks that can be rewound (e.g. seconds * tick rate)
+     */
+    public RewindBuffer(int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.deltas = new byte[this.capacity][];
+        this.deltaLengths = new int[this.capacity];
+        this.previousLengths = new int[this.capacity];
+    }
+
+    /**
+     * Save the state at the start of a tick
+     */
+    public void record(GameLogic logic) {
+        int needed = logic.getStateSizeHint();
+        if (scratch.capacity() < needed) {
+            scratch = ByteBuffer.allocate(Math.max(needed, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        logic.saveState(scratch);
+        byte[] next = scratch.array();
+        int nextLength = scratch.position();
+
+        if (currentLength >= 0) {
+            encodeDelta(next, nextLength);
+            previousLengths[head] = currentLength;
+            head = (head + 1) % capacity;
+            count = Math.min(count + 1, capacity);
+        }
+
+        if (current.length < nextLength) {
+            current = new byte[Math.max(nextLength, current.length * 2)];
+        }
+        System.arraycopy(next, 0, current, 0, nextLength);
+        currentLength = nextLength;
+    }
+
+    /**
+     * Restore the state from (up to) ticks recordings ago.
+     * Those ticks are dropped: recording continues from the restored state.
+     *
+     * @return How many ticks were actually rewound (0 = no history)
+     */
+    public int rewind(GameLogic logic, int ticks) {
+        int steps = Math.min(ticks, count);
+        if (steps == 0) {
+            return 0;
+        }
+        for (int i = 0; i < steps; i++) {
+            head = (head - 1 + capacity) % capacity;
+            applyDelta(deltas[head], deltaLengths[head], previousLengths[head]);
+            currentLength = previousLengths[head];
+        }
+        count -= steps;
+        logic.loadState(ByteBuffer.wrap(current, 0, currentLength));
+        return steps;
+    }
+
+    /**
+     * Forget all history (e.g. after loading an unrelated state)
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        currentLength = -1;
+    }
+
+    /**
+     * Ticks currently available to rewind
+     */
+    public int getAvailableTicks() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Bytes allocated for history: ring slots, the newest state and scratch
+     */
+    public long getMemoryBytes() {
+        long total = current.length + scratch.capacity() + deltaScratch.length;
+        for (byte[] slot : deltas) {
+            total += slot == null ? 0 : slot.length;
+        }
+        return total;
+    }
+
+    /**
+     * Bytes of delta data in the ring (excluding the newest full state)
+     */
+    public long getDeltaBytes() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += deltaLengths[(head - 1 - i + capacity * 2) % capacity];
+        }
+        return total;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Delta coding: XOR of current and next, as (zero run, literal run) pairs
+    // ═══════════════════════════════════════════════════════════════
+
+    private void encodeDelta(byte[] next, int nextLength) {
+        int span = Math.max(nextLength, currentLength);
+        // Worst case: every literal run is split by a 2-byte zero run
+        int bound = span + (span / 3 + 1) * 10;
+        if (deltaScratch.length < bound) {
+            deltaScratch = new byte[bound];
+        }
+        byte[] out = deltaScratch;
+
+        int length = 0;
+        int i = 0;
+        while (i < span) {
+            int zeroStart = i;
+            while (i < span && xor(next, nextLength, i) == 0) {
+                i++;
+            }
+            int literalStart = i;
+            // A literal run ends at two zero bytes in a row (cheaper as a zero run)
+            while (i < span && (xor(next, nextLength, i) != 0
+                    || (i + 1 < span && xor(next, nextLength, i + 1) != 0))) {
+                i++;
+            }
+            length = putVarint(out, length, literalStart - zeroStart);
+            length = putVarint(out, length, i - literalStart);
+            for (int j = literalStart; j < i; j++) {
+                out[length++] = xor(next, nextLength, j);
+            }
+        }
+
+        byte[] slot = deltas[head];
+        if (slot == null || slot.length < length) {
+            // A little headroom, so slightly bigger deltas later reuse the slot
+            slot = new byte[length + length / 4 + 16];
+            deltas[head] = slot;
+        }
+        System.arraycopy(out, 0, slot, 0, length);
+        deltaLengths[head] = length;
+    }
+
+    private byte xor(byte[] next, int nextLength, int index) {
+        byte a = index < currentLength ? current[index] : 0;
+        byte b = index < nextLength ? next[index] : 0;
+        return (byte) (a ^ b);
+    }
+
+    private void applyDelta(byte[] delta, int deltaLength, int previousLength) {
+        int span = Math.max(previousLength, currentLength);
+        if (current.length < span) {
+            current = Arrays.copyOf(current, span);
+        }
+        // Bytes past the shorter state count as zero
+        Arrays.fill(current, currentLength, span, (byte) 0);
+
+        int position = 0;
+        int index = 0;
+        while (position < deltaLength) {
+            cursor[0] = position;
+            int zeros = readVarint(delta);
+            int literals = readVarint(delta);
+            position = cursor[0];
+            index += zeros;
+            for (int j = 0; j < literals; j++) {
+                current[index++] ^= delta[position++];
+            }
+        }
+    }
+
+    private static int putVarint(byte[] out, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            out[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private int readVarint(byte[] in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in[cursor[0]++];
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,97 @@
+package engine;
+
+/**
+ * RunSummary - Outcome of one fast-forward run (see FastForwardRunner)
+ *
+ * Everything a difficulty balancing pass needs: how much damage the
+ * player took, how many coins they got, whether/when they reached the
+ * exit, and how busy the obstacle spawner was.
+ */
+public class RunSummary {
+    private final String difficulty;
+    private final long seed;
+    private final long ticks;
+    private final float gameSeconds;
+    private final long realNanos;
+
+    private final int damageTaken;
+    private final int hitsTaken;
+    private final boolean died;
+    private final int coinsCollected;
+    private final int coinsTotal;
+    private final int score;
+
+    private final boolean reachedExit;
+    private final float timeToExit;
+
+    private final int obstaclesSpawned;
+    private final int peakObstacles;
+    private final int finalObstacles;
+
+    public RunSummary(String difficulty, long seed, long ticks, float gameSeconds, long realNanos,
+                      int damageTaken, int hitsTaken, boolean died,
+                      int coinsCollected, int coinsTotal, int score,
+                      boolean reachedExit, float timeToExit,
+                      int obstaclesSpawned, int peakObstacles, int finalObstacles) {
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.gameSeconds = gameSeconds;
+        this.realNanos = realNanos;
+        this.damageTaken = damageTaken;
+        this.hitsTaken = hitsTaken;
+        this.died = died;
+        this.coinsCollected = coinsCollected;
+        this.coinsTotal = coinsTotal;
+        this.score = score;
+        this.reachedExit = reachedExit;
+        this.timeToExit = timeToExit;
+        this.obstaclesSpawned = obstaclesSpawned;
+        this.peakObstacles = peakObstacles;
+        this.finalObstacles = finalObstacles;
+    }
+
+    public String getDifficulty() { return difficulty; }
+
+    /**
+     * @return Session seed - rerun with it (and the same input) to reproduce this run
+     */
+    public long getSeed() { return seed; }
+    public long getTicks() { return ticks; }
+    public float getGameSeconds() { return gameSeconds; }
+    public long getRealNanos() { return realNanos; }
+    public int getDamageTaken() { return damageTaken; }
+    public int getHitsTaken() { return hitsTaken; }
+    public boolean isDied() { return died; }
+    public int getCoinsCollected() { return coinsCollected; }
+    public int getCoinsTotal() { return coinsTotal; }
+    public int getScore() { return score; }
+    public boolean hasReachedExit() { return reachedExit; }
+
+    /**
+     * @return Game seconds until the exit was reached, or -1 if it wasn't
+     */
+    public float getTimeToExit() { return timeToExit; }
+
+    public int getObstaclesSpawned() { return obstaclesSpawned; }
+    public int getPeakObstacles() { return peakObstacles; }
+    public int getFinalObstacles() { return finalObstacles; }
+
+    /**
+     * @return How many times faster than real time the run was simulated
+     */
+    public double getSpeedup() {
+        return realNanos == 0 ? 0 : gameSeconds / (realNanos / 1_000_000_000.0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s seed %d: %.1fs game time (%d ticks, %.0fx real time) | damage %d in %d hits%s | coins %d/%d (score %d) | %s | obstacles spawned %d, peak %d, final %d",
+            difficulty, seed, gameSeconds, ticks, getSpeedup(),
+            damageTaken, hitsTaken, died ? " (died)" : "",
+            coinsCollected, coinsTotal, score,
+            reachedExit ? String.format("exit after %.1fs", timeToExit) : "exit not reached",
+            obstaclesSpawned, peakObstacles, finalObstacles);
+    }
+}
@@ -0,0 +1,83 @@
+package engine;
+
+import events.EventBus;
+import events.GameEvent;
+import events.GameEventListener;
+
+/**
+ * StopCondition - Decides when GameEngine's loop ends
+ *
+ * Checked after every simulation tick and after every frame.
+ * Built-in conditions:
+ * - afterTicks(n):        fixed amount of simulated time (the old 3000-frame demo)
+ * - afterWallTime(ms):    fixed amount of real time (benchmarks)
+ * - onEvent(type):        first time a GameEvent of that type is published
+ */
+public interface StopCondition {
+    /**
+     * @param ticks Simulation ticks run so far
+     * @param elapsedNanos Wall time since the loop started
+     * @return true to end the loop
+     */
+    boolean shouldStop(long ticks, long elapsedNanos);
+
+    /**
+     * Called when the loop starts
+     */
+    default void start() {
+    }
+
+    /**
+     * Called when the loop has ended
+     */
+    default void finish() {
+    }
+
+    static StopCondition afterTicks(long ticks) {
+        return (elapsedTicks, elapsedNanos) -> elapsedTicks >= ticks;
+    }
+
+    static StopCondition afterWallTime(long millis) {
+        long limit = millis * 1_000_000L;
+        return (elapsedTicks, elapsedNanos) -> elapsedNanos >= limit;
+    }
+
+    static StopCondition onEvent(Class<? extends GameEvent> eventType) {
+        return new EventStopCondition(eventType);
+    }
+
+    /**
+     * Observer Pattern: listens on the EventBus only while the loop runs
+     */
+    class EventStopCondition implements StopCondition, GameEventListener {
+        private final Class<? extends GameEvent> eventType;
+        private boolean seen = false;
+
+        EventStopCondition(Class<? extends GameEvent> eventType) {
+            this.eventType = eventType;
+        }
+
+        @Override
+        public void onEvent(GameEvent event) {
+            if (eventType.isInstance(event)) {
+                seen = true;
+            }
+        }
+
+        @Override
+        public boolean shouldStop(long ticks, long elapsedNanos) {
+            return seen;
+        }
+
+        @Override
+        public void start() {
+            seen = false;
+            EventBus.getInstance().subscribe(this);
+        }
+
+        @Override
+        public void finish() {
+            EventBus.getInstance().unsubscribe(this);
+        }
+    }
+}
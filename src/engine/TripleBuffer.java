@@ -0,0 +1,67 @@
+package engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TripleBuffer - Lock-free hand-off of the latest value between two threads
+ *
+ * Three recycled slots:
+ * - back:   owned by the producer (simulation writes the next snapshot here)
+ * - middle: the most recently published slot, waiting to be picked up
+ * - front:  owned by the consumer (render thread reads it)
+ *
+ * publish() swaps back <-> middle, acquire() swaps front <-> middle.
+ * Both are a single atomic exchange, so neither side ever blocks:
+ * - A slow renderer never stalls the simulation (old frames are just overwritten)
+ * - The renderer always gets the newest complete snapshot
+ *
+ * @param <T> Slot type (e.g. WorldSnapshot)
+ */
+public class TripleBuffer<T> {
+    // Bit set in 'middle' when it holds a snapshot the consumer hasn't seen
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public TripleBuffer(T first, T second, T third) {
+        this.slots = new Object[] { first, second, third };
+    }
+
+    /**
+     * Producer: slot to fill with the next value
+     */
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) slots[back];
+    }
+
+    /**
+     * Producer: make back() visible to the consumer and get a fresh back slot
+     */
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & ~FRESH;
+    }
+
+    /**
+     * Consumer: take the newest published value if there is one.
+     * @return true if front() changed since the last call
+     */
+    public boolean acquire() {
+        if ((middle.get() & FRESH) == 0) {
+            return false;
+        }
+        front = middle.getAndSet(front) & ~FRESH;
+        return true;
+    }
+
+    /**
+     * Consumer: slot holding the value returned by the last acquire()
+     */
+    @SuppressWarnings("unchecked")
+    public T front() {
+        return (T) slots[front];
+    }
+}
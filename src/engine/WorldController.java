@@ -7,12 +7,16 @@ import factories.WolfFactory;
 import pools.ObstaclePool;
 import entities.Entity;
 import world.DungeonMap;
+import world.FieldOfView;
+import world.FlowField;
 import difficulty.DifficultyStrategy;
 
 import java.util.ArrayList;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Random;
 import java.util.Arrays;
+import utils.RandomStreams;
 
 /**
  * WorldController - Manages obstacle spawning with Strategy Pattern
@@ -20,22 +24,48 @@ import java.util.Arrays;
  * Design Patterns Used:
  * - Object Pool Pattern for obstacle reuse
  * - Strategy Pattern for difficulty-based spawning
+ *
+ * Keeps the OccupancyGrid in sync on spawn, move and release, and asks
+ * it (not the obstacle list) whether a tile is taken: blocking a move and
+ * checking a spawn tile are constant time however many obstacles are out.
  */
 public class WorldController {
+    // Nothing spawns within this many steps of the entity
+    private static final int SAFE_RADIUS = 2;
+
     private final List<Obstacle> activeObstacles;
     private final List<ObstaclePool> pools;
-    private final Random random;
+    // Separate streams, so spawn placement and enemy choice don't shift each other
+    private final Random positionRandom;
+    private final Random typeRandom;
     private final Entity entity;
     private final DifficultyStrategy strategy;
+    private final OccupancyGrid occupancy;
 
     private float spawnTimer = 0;
-    private static final int OFF_SCREEN_Y = 25;
 
-    public WorldController(Entity entity, DifficultyStrategy strategy) {
+    // One shortest-path field towards the entity, shared by every wolf
+    private final FlowField chaseField = new FlowField();
+    // What the entity can see; wolves only chase an entity they are in sight of
+    private final FieldOfView playerView = new FieldOfView();
+
+    // Statistics for run summaries
+    private int obstaclesSpawned = 0;
+    private int peakObstacles = 0;
+
+    // Position of activeObstacles[i] before the last update() (render interpolation,
+    // and where to put an obstacle back if it walked into another one)
+    private int[] previousX = new int[64];
+    private int[] previousY = new int[64];
+
+    public WorldController(Entity entity, DifficultyStrategy strategy, OccupancyGrid occupancy,
+                           RandomStreams randomStreams) {
         this.activeObstacles = new ArrayList<>();
-        this.random = new Random();
+        this.positionRandom = randomStreams.stream("spawn-position");
+        this.typeRandom = randomStreams.stream("spawn-type");
         this.entity = entity;
         this.strategy = strategy;
+        this.occupancy = occupancy;
 
         this.pools = Arrays.asList(
             new ObstaclePool(new SpikeFactory(), 10, 50),
@@ -72,7 +102,18 @@ public class WorldController {
 
     private void addIfNotNull(List<Obstacle> list, Obstacle obstacle) {
         if (obstacle != null) {
+            // Until its first tick an obstacle is drawn where it spawned
+            int index = list.size();
+            if (previousX.length <= index) {
+                previousX = Arrays.copyOf(previousX, Math.max(index + 1, previousX.length * 2));
+                previousY = Arrays.copyOf(previousY, previousX.length);
+            }
+            previousX[index] = obstacle.getX();
+            previousY[index] = obstacle.getY();
             list.add(obstacle);
+            occupancy.addObstacle(obstacle);
+            obstaclesSpawned++;
+            peakObstacles = Math.max(peakObstacles, list.size());
         }
     }
 
@@ -81,80 +122,169 @@ public class WorldController {
             spawnTimer += delta;
             if (spawnTimer >= strategy.getSpawnInterval()) {
                 spawnRandomObstacle();
-                spawnTimer = 0;
+                // Keep the remainder so spawns don't drift with the tick length
+                spawnTimer -= strategy.getSpawnInterval();
             }
         }
 
-        List<int[]> oldPositions = new ArrayList<>();
-        for (Obstacle obstacle : activeObstacles) {
-            oldPositions.add(new int[]{obstacle.getX(), obstacle.getY()});
+        // O(1) unless the entity stepped onto another tile
+        chaseField.update(entity.getX(), entity.getY());
+        refreshPlayerView();
+
+        int count = activeObstacles.size();
+        if (previousX.length < count) {
+            previousX = Arrays.copyOf(previousX, Math.max(count, previousX.length * 2));
+            previousY = Arrays.copyOf(previousY, previousX.length);
+        }
+        for (int i = 0; i < count; i++) {
+            Obstacle obstacle = activeObstacles.get(i);
+            previousX[i] = obstacle.getX();
+            previousY[i] = obstacle.getY();
         }
 
-        for (int i = 0; i < activeObstacles.size(); i++) {
+        for (int i = 0; i < count; i++) {
             Obstacle obstacle = activeObstacles.get(i);
-            int[] oldPos = oldPositions.get(i);
 
             obstacle.update(delta);
 
             if (obstacle instanceof obstacles.Wolf) {
-                ((obstacles.Wolf) obstacle).setTarget(entity);
+                chase((obstacles.Wolf) obstacle);
             }
 
             int newX = obstacle.getX();
             int newY = obstacle.getY();
 
-            if (newX != oldPos[0] || newY != oldPos[1]) {
-                for (int j = 0; j < activeObstacles.size(); j++) {
-                    if (i != j) {
-                        Obstacle other = activeObstacles.get(j);
-                        if (other.getX() == newX && other.getY() == newY) {
-                            obstacle.setPosition(oldPos[0], oldPos[1]);
-                            break;
-                        }
-                    }
+            if (newX != previousX[i] || newY != previousY[i]) {
+                // The grid still has this obstacle on its previous tile
+                if (occupancy.hasOtherObstacle(newX, newY, obstacle)) {
+                    obstacle.setPosition(previousX[i], previousY[i]);
                 }
+                occupancy.moveObstacle(obstacle, previousX[i], previousY[i]);
             }
         }
 
-        List<Obstacle> toRemove = new ArrayList<>();
-        for (Obstacle obs : activeObstacles) {
-            if (!obs.isActive() || obs.getY() > OFF_SCREEN_Y) {
-                toRemove.add(obs);
+        // Release finished obstacles, compacting the previous-position arrays alongside
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Obstacle obs = activeObstacles.get(i);
+            if (!obs.isActive() || !isInsideWorld(obs)) {
+                occupancy.removeObstacle(obs);
+                returnToPool(obs);
+            } else {
+                activeObstacles.set(kept, obs);
+                previousX[kept] = previousX[i];
+                previousY[kept] = previousY[i];
+                kept++;
             }
         }
-
-        for (Obstacle obs : toRemove) {
-            activeObstacles.remove(obs);
-            returnToPool(obs);
-        }
+        activeObstacles.subList(kept, count).clear();
     }
 
     private void spawnRandomObstacle() {
-        int randomValue = random.nextInt(10);
+        int randomValue = typeRandom.nextInt(10);
         int enemyType = strategy.getEnemyTypeToSpawn(randomValue);
 
         ObstaclePool pool = pools.get(enemyType);
 
-        int x = -1, y = -1;
-        int attempts = 0;
-        while (attempts < 10) {
-            int tryX = 1 + random.nextInt(23);
-            int tryY = 1 + random.nextInt(23);
+        // One uniform pick among the free tiles: succeeds whenever any tile qualifies
+        FreeCellSet free = occupancy.getFreeCells();
+        int cell = free.pickExcluding(positionRandom, entity.getX(), entity.getY(), SAFE_RADIUS);
+        if (cell >= 0) {
+            Obstacle obstacle = pool.acquire(free.getX(cell), free.getY(cell));
+            addIfNotNull(activeObstacles, obstacle);
+        }
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // State save/restore (replay keyframes, rewind)
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Write spawner state and every active obstacle (pool type + own state)
+     */
+    public void saveState(ByteBuffer out) {
+        out.putFloat(spawnTimer);
+        out.putInt(obstaclesSpawned);
+        out.putInt(peakObstacles);
+        out.putInt(activeObstacles.size());
+        for (int i = 0; i < activeObstacles.size(); i++) {
+            Obstacle obstacle = activeObstacles.get(i);
+            out.put((byte) poolIndexOf(obstacle));
+            out.putInt(previousX[i]);
+            out.putInt(previousY[i]);
+            obstacle.saveState(out);
+        }
+    }
 
-            if (isSafePosition(tryX, tryY)) {
-                x = tryX;
-                y = tryY;
-                break;
+    /**
+     * Replace all active obstacles with the saved ones.
+     * Current obstacles go back to their pools and saved ones are acquired
+     * from the same pools, so pool bookkeeping stays consistent.
+     */
+    public void loadState(ByteBuffer in) {
+        for (Obstacle obstacle : activeObstacles) {
+            occupancy.removeObstacle(obstacle);
+            returnToPool(obstacle);
+        }
+        activeObstacles.clear();
+
+        spawnTimer = in.getFloat();
+        int spawned = in.getInt();
+        int peak = in.getInt();
+        int count = in.getInt();
+        if (previousX.length < count) {
+            previousX = new int[count];
+            previousY = new int[count];
+        }
+        for (int i = 0; i < count; i++) {
+            ObstaclePool pool = pools.get(in.get());
+            previousX[i] = in.getInt();
+            previousY[i] = in.getInt();
+            Obstacle obstacle = pool.acquire(0, 0);
+            obstacle.loadState(in);
+            if (obstacle instanceof obstacles.Wolf && ((obstacles.Wolf) obstacle).needsTarget()) {
+                chase((obstacles.Wolf) obstacle);
             }
-            attempts++;
+            activeObstacles.add(obstacle);
+            occupancy.addObstacle(obstacle);
         }
+        obstaclesSpawned = spawned;
+        peakObstacles = peak;
+    }
+
+    private void chase(obstacles.Wolf wolf) {
+        wolf.setTarget(entity);
+        wolf.setFlowField(chaseField);
+        wolf.setVisibility(playerView);
+    }
+
+    public FlowField getChaseField() {
+        return chaseField;
+    }
+
+    /**
+     * Recompute what the player sees if they changed tiles. Called every
+     * tick, and by GameLogic whenever the player is placed outside one
+     * (level load, restored state, fleeing the boss).
+     */
+    public void refreshPlayerView() {
+        playerView.update(entity.getX(), entity.getY());
+    }
+
+    /**
+     * Read-only for everyone but this class (wolves, WorldSnapshot)
+     */
+    public FieldOfView getPlayerView() {
+        return playerView;
+    }
 
-        if (x != -1 && y != -1) {
-            Obstacle obstacle = pool.acquire(x, y);
-            if (obstacle != null) {
-                activeObstacles.add(obstacle);
+    private int poolIndexOf(Obstacle obstacle) {
+        for (int i = 0; i < pools.size(); i++) {
+            if (pools.get(i).ownsObstacle(obstacle)) {
+                return i;
             }
         }
+        throw new IllegalStateException("Obstacle not owned by any pool: " + obstacle);
     }
 
     private void returnToPool(Obstacle obstacle) {
@@ -166,22 +296,21 @@ public class WorldController {
         }
     }
 
-    private boolean isSafePosition(int x, int y) {
-        if (!DungeonMap.isWalkable(x, y)) return false;
-        if (x == 23 && y == 23) return false;
-
-        int distance = Math.abs(x - entity.getX()) + Math.abs(y - entity.getY());
-        if (distance < 3) return false;
-
-        for (Obstacle obs : activeObstacles) {
-            if (obs.getX() == x && obs.getY() == y) return false;
-        }
-
-        return true;
+    private boolean isInsideWorld(Obstacle obs) {
+        return obs.getX() >= 0 && obs.getY() >= 0
+            && obs.getX() < DungeonMap.getWidth() && obs.getY() < DungeonMap.getHeight();
     }
 
     public List<Obstacle> getActiveObstacles() { return activeObstacles; }
     public int getObstacleCount() { return activeObstacles.size(); }
+    public int getObstaclesSpawned() { return obstaclesSpawned; }
+    public int getPeakObstacleCount() { return peakObstacles; }
+
+    /**
+     * Position of getActiveObstacles().get(index) before the last update()
+     */
+    public int getPreviousX(int index) { return previousX[index]; }
+    public int getPreviousY(int index) { return previousY[index]; }
 
     public void printPoolStats() {
         System.out.println("\n=== POOL STATISTICS ===");
@@ -0,0 +1,159 @@
+package engine;
+
+import entities.Coin;
+import entities.DungeonExit;
+import entities.GameManager;
+import obstacles.Obstacle;
+import world.FieldOfView;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * WorldSnapshot - Everything the renderer needs for one frame
+ *
+ * Captured by the simulation thread, read by FrameRenderer - inline, or
+ * on a RenderThread. Snapshots are recycled (see TripleBuffer): capture()
+ * overwrites the arrays in place and only grows them, so steady-state
+ * capture allocates nothing.
+ *
+ * Contains plain values only (positions, glyphs, HUD numbers), never
+ * references to live game objects, so the renderer can't race the simulation.
+ */
+public class WorldSnapshot {
+    // Simulation frame this snapshot was taken at
+    public long frame;
+
+    // Changes when the screen must be fully redrawn (see GameLogic.requestFullRedraw)
+    public int redrawGeneration;
+
+    // How far rendering is between the previous tick and this one (0..1)
+    public float alpha;
+
+    public int playerX;
+    public int playerY;
+    public int previousPlayerX;
+    public int previousPlayerY;
+
+    public int coinCount;
+    public int[] coinX = new int[16];
+    public int[] coinY = new int[16];
+    public char[] coinGlyph = new char[16];
+
+    public int obstacleCount;
+    public int[] obstacleX = new int[64];
+    public int[] obstacleY = new int[64];
+    public int[] previousObstacleX = new int[64];
+    public int[] previousObstacleY = new int[64];
+    public char[] obstacleGlyph = new char[64];
+
+    // Player's field of view (bits copied from FieldOfView, window origin, version)
+    public final long[] visible = new long[FieldOfView.WORDS];
+    public int fovOriginX;
+    public int fovOriginY;
+    public int fovVersion;
+
+    public boolean hasExit;
+    public int exitX;
+    public int exitY;
+    public char exitGlyph;
+
+    // HUD values
+    public int score;
+    public int hp;
+    public float gameTime;
+    public int level;
+    public int achievementCount;
+    public final String[] achievements = new String[HUD.VISIBLE_ACHIEVEMENTS];
+
+    /**
+     * Copy the current world state into this snapshot (simulation thread)
+     */
+    public void capture(GameLogic logic, long frameNumber, float alpha) {
+        frame = frameNumber;
+        this.alpha = alpha;
+        redrawGeneration = logic.getRedrawGeneration();
+        playerX = logic.getPlayerX();
+        playerY = logic.getPlayerY();
+        previousPlayerX = logic.getPreviousPlayerX();
+        previousPlayerY = logic.getPreviousPlayerY();
+
+        List<Coin> coins = logic.getCoins();
+        coinCount = 0;
+        ensureCoinCapacity(coins.size());
+        for (int i = 0; i < coins.size(); i++) {
+            Coin coin = coins.get(i);
+            if (!coin.isCollected()) {
+                coinX[coinCount] = coin.getX();
+                coinY[coinCount] = coin.getY();
+                coinGlyph[coinCount] = coin.getSymbol();
+                coinCount++;
+            }
+        }
+
+        WorldController world = logic.getWorldController();
+        List<Obstacle> obstacles = world.getActiveObstacles();
+        ensureObstacleCapacity(obstacles.size());
+        obstacleCount = obstacles.size();
+        for (int i = 0; i < obstacleCount; i++) {
+            Obstacle obstacle = obstacles.get(i);
+            obstacleX[i] = obstacle.getX();
+            obstacleY[i] = obstacle.getY();
+            previousObstacleX[i] = world.getPreviousX(i);
+            previousObstacleY[i] = world.getPreviousY(i);
+            obstacleGlyph[i] = obstacle.getSymbol();
+        }
+
+        // Kept up to date by the simulation (WorldController.refreshPlayerView)
+        FieldOfView view = world.getPlayerView();
+        view.copyTo(visible);
+        fovOriginX = view.getViewerX() - FieldOfView.RADIUS;
+        fovOriginY = view.getViewerY() - FieldOfView.RADIUS;
+        fovVersion = view.getVersion();
+
+        DungeonExit exit = logic.getDungeonExit();
+        hasExit = exit != null;
+        if (hasExit) {
+            exitX = exit.getX();
+            exitY = exit.getY();
+            exitGlyph = exit.getSymbol();
+        }
+
+        GameManager manager = GameManager.getInstance();
+        score = manager.getScore();
+        hp = manager.getHp();
+        gameTime = manager.getGameTime();
+        level = manager.getLevel();
+        achievementCount = logic.getHUD().copyAchievements(achievements);
+    }
+
+    public boolean isVisible(int x, int y) {
+        return FieldOfView.isVisible(visible, fovOriginX, fovOriginY, x, y);
+    }
+
+    /**
+     * Position between the previous tick and the current one, snapped to the grid
+     */
+    public int interpolate(int previous, int current) {
+        return previous + Math.round((current - previous) * alpha);
+    }
+
+    private void ensureCoinCapacity(int size) {
+        if (coinX.length < size) {
+            coinX = Arrays.copyOf(coinX, size);
+            coinY = Arrays.copyOf(coinY, size);
+            coinGlyph = Arrays.copyOf(coinGlyph, size);
+        }
+    }
+
+    private void ensureObstacleCapacity(int size) {
+        if (obstacleX.length < size) {
+            int grown = Math.max(size, obstacleX.length * 2);
+            obstacleX = Arrays.copyOf(obstacleX, grown);
+            obstacleY = Arrays.copyOf(obstacleY, grown);
+            previousObstacleX = Arrays.copyOf(previousObstacleX, grown);
+            previousObstacleY = Arrays.copyOf(previousObstacleY, grown);
+            obstacleGlyph = Arrays.copyOf(obstacleGlyph, grown);
+        }
+    }
+}
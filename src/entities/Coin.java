@@ -29,6 +29,13 @@ public class Coin {
         this.collected = true;
     }
 
+    /**
+     * Restore a saved state (replay keyframes, rewind)
+     */
+    public void setCollected(boolean collected) {
+        this.collected = collected;
+    }
+
     public boolean isCollected() {
         return collected;
     }
@@ -109,6 +109,17 @@ public class GameManager {
         }
     }
 
+    /**
+     * Restore a saved state (replay keyframes, rewind)
+     */
+    public void restore(int score, float gameTime, int level, int hp, boolean gameOver) {
+        this.score = score;
+        this.gameTime = gameTime;
+        this.level = level;
+        this.hp = hp;
+        this.gameOver = gameOver;
+    }
+
     /**
      * ✅ SOLUTION: Reset for testing (resets THE instance).
      *
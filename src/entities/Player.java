@@ -140,6 +140,16 @@ public class Player implements Entity {
         return health > 0;
     }
 
+    /**
+     * Restore a saved state (replay keyframes, rewind) without publishing events
+     */
+    public void restore(int x, int y, int health, int score) {
+        this.x = x;
+        this.y = y;
+        this.health = health;
+        this.score = score;
+    }
+
     public void reset(int startX, int startY) {
         this.x = startX;
         this.y = startY;
@@ -4,6 +4,8 @@ import battle.BattleSystem;
 import difficulty.DifficultyStrategy;
 import entities.Player;
 
+import java.util.Random;
+
 /**
  * Week 12-05: BattleState (Game State Pattern)
  *
@@ -18,10 +20,29 @@ public class BattleState implements GameState {
     private Player player;
     private boolean battleCompleted;
     private boolean playerWon;
+    private Random random;
+    private final LaunchOptions options;
 
     public BattleState(DifficultyStrategy strategy, Player player) {
+        this(strategy, player, new Random());
+    }
+
+    /**
+     * @param random Boss AI randomness (the session's "battle" stream)
+     */
+    public BattleState(DifficultyStrategy strategy, Player player, Random random) {
+        this(strategy, player, random, new LaunchOptions());
+    }
+
+    /**
+     * @param random Boss AI randomness (the session's "battle" stream)
+     * @param options Command line settings, passed on to the next states
+     */
+    public BattleState(DifficultyStrategy strategy, Player player, Random random, LaunchOptions options) {
         this.strategy = strategy;
+        this.options = options;
         this.player = player;
+        this.random = random;
         this.battleCompleted = false;
     }
 
@@ -31,7 +52,7 @@ public class BattleState implements GameState {
 
         // Check if demo mode (boss only defends)
         boolean isDemoMode = strategy.getName().equals("DEMO");
-        battleSystem = new BattleSystem(player, isDemoMode);
+        battleSystem = new BattleSystem(player, isDemoMode, random);
     }
 
     @Override
@@ -45,9 +66,9 @@ public class BattleState implements GameState {
         // Transition based on battle result
         if (battleCompleted) {
             if (playerWon) {
-                return new VictoryState(strategy);
+                return new VictoryState(strategy, options);
             } else {
-                return new DefeatState(strategy);
+                return new DefeatState(strategy, options);
             }
         }
 
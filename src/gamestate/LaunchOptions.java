@@ -0,0 +1,287 @@
+package gamestate;
+
+import difficulty.DifficultyStrategy;
+import difficulty.EasyDifficulty;
+import difficulty.HardDifficulty;
+import difficulty.NormalDifficulty;
+import level.BossArenaLoader;
+import level.CastleLevelLoader;
+import level.DungeonLevelLoader;
+import level.ForestLevelLoader;
+import level.LevelLoader;
+import level.MapFileLevelLoader;
+import utils.AsyncFrameWriter;
+import utils.RenderTarget;
+import utils.StdoutSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * LaunchOptions - Command line settings for one run of the game
+ *
+ * Parsed once by Main and handed from state to state
+ * (Menu → Playing → Battle → Victory/Defeat → Menu), so "play again"
+ * keeps the settings the game was started with.
+ *
+ * Options:
+ *   --async-output       Write frames on a background thread (slow terminals, SSH)
+ *   --render-thread      Encode and write frames on a RenderThread, fed
+ *                        snapshots through a TripleBuffer
+ *   --record <file>      Record the game to a .replay file (a new game
+ *                        overwrites it)
+ *   --replay <file>      No menu, no terminal: play a recording back and
+ *                        time its ticks (replay.ReplayPlayer)
+ *     --from <tick>      First tick to time (default 0)
+ *     --to <tick>        Tick to stop at (default: end of the recording)
+ *     --repeat <n>       Time the range n times (default 1)
+ *   --headless <ticks>   No menu, no terminal: run the game loop uncapped for
+ *                        this many ticks and print throughput (benchmarks)
+ *   --fast-forward <n>   No menu, no terminal: simulate n whole games as fast
+ *                        as the CPU allows and print a RunSummary for each
+ *     --script <keys>    Keys for those games, one per tick, '.' = none,
+ *                        repeated (default: stand still)
+ *     --seconds <n>      Game-time limit per run (default 300)
+ *     --seed <n>         Seed of the first run, +1 per run (default: random)
+ *   --difficulty <name>  easy | normal | hard          (modes without a menu)
+ *   --level <name>       dungeon | forest | castle | arena
+ *   --map <file>         Play a map file (world.MapConverter) instead of a
+ *                        built-in level; the menu then only asks for difficulty
+ */
+public class LaunchOptions {
+    public static final String USAGE = "Usage: java Main [--async-output] [--render-thread] [--record <file>] [--map <file>]\n"
+        + "       java Main --headless <ticks> [--render-thread] [--record <file>] [level options]\n"
+        + "       java Main --fast-forward <runs> [--script <keys>] [--seconds <n>] [--seed <n>] [level options]\n"
+        + "       java Main --replay <file> [--from <tick>] [--to <tick>] [--repeat <n>]\n"
+        + "Level options: --difficulty easy|normal|hard, --level dungeon|forest|castle|arena, --map <file>";
+
+    /**
+     * What Main does with this run
+     */
+    public enum Mode {
+        PLAY,         // The interactive game (menu, states)
+        HEADLESS,     // GameEngine into a HeadlessRenderTarget
+        FAST_FORWARD, // engine.FastForwardRunner, no loop at all
+        REPLAY        // replay.ReplayPlayer
+    }
+
+    private Mode mode = Mode.PLAY;
+    private boolean asyncOutput = false;
+    private boolean renderThread = false;
+    private long ticks = 3000;
+    private int runs = 1;
+    private String script = "";
+    private float seconds = 300;
+    private Long seed = null;
+    private Path recordFile = null;
+    private Path replayFile = null;
+    private int fromTick = 0;
+    private int toTick = Integer.MAX_VALUE;
+    private int repeat = 1;
+    private String difficultyName = "normal";
+    private String levelName = "dungeon";
+    private LevelLoader mapLevel = null;
+
+    // Shared by every session of this run (created on first use)
+    private RenderTarget renderTarget;
+
+    /**
+     * @throws IllegalArgumentException Unknown option or missing value
+     */
+    public static LaunchOptions parse(String[] args) {
+        LaunchOptions options = new LaunchOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--async-output":
+                    options.asyncOutput = true;
+                    break;
+                case "--render-thread":
+                    options.renderThread = true;
+                    break;
+                case "--record":
+                    options.recordFile = Paths.get(valueOf(args, ++i));
+                    break;
+                case "--replay":
+                    options.mode = Mode.REPLAY;
+                    options.replayFile = Paths.get(valueOf(args, ++i));
+                    break;
+                case "--from":
+                    options.fromTick = parseTick(valueOf(args, ++i));
+                    break;
+                case "--to":
+                    options.toTick = parseTick(valueOf(args, ++i));
+                    break;
+                case "--repeat":
+                    options.repeat = (int) Math.min(Integer.MAX_VALUE, parseCount(valueOf(args, ++i)));
+                    break;
+                case "--headless":
+                    options.mode = Mode.HEADLESS;
+                    options.ticks = parseCount(valueOf(args, ++i));
+                    break;
+                case "--fast-forward":
+                    options.mode = Mode.FAST_FORWARD;
+                    options.runs = (int) Math.min(Integer.MAX_VALUE, parseCount(valueOf(args, ++i)));
+                    break;
+                case "--script":
+                    options.script = valueOf(args, ++i);
+                    break;
+                case "--seconds":
+                    options.seconds = parseCount(valueOf(args, ++i));
+                    break;
+                case "--seed":
+                    options.seed = parseSeed(valueOf(args, ++i));
+                    break;
+                case "--difficulty":
+                    options.difficultyName = valueOf(args, ++i).toLowerCase();
+                    options.createDifficulty();
+                    break;
+                case "--level":
+                    options.levelName = valueOf(args, ++i).toLowerCase();
+                    options.createLevel();
+                    break;
+                case "--map":
+                    options.mapLevel = openMap(valueOf(args, ++i));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (options.mapLevel != null && options.recordFile != null) {
+            // Replay headers name the loader class, which can't say which file to open
+            throw new IllegalArgumentException("--record does not support --map levels");
+        }
+        return options;
+    }
+
+    /**
+     * Where interactive sessions draw: stdout, or stdout behind an
+     * AsyncFrameWriter so a blocking write never holds up the game loop
+     */
+    public RenderTarget getRenderTarget() {
+        if (renderTarget == null) {
+            renderTarget = asyncOutput ? new AsyncFrameWriter(new StdoutSink()) : new StdoutSink();
+        }
+        return renderTarget;
+    }
+
+    /**
+     * Write out pending frames and stop the writer thread (end of the run)
+     */
+    public void close() {
+        if (renderTarget instanceof AsyncFrameWriter) {
+            ((AsyncFrameWriter) renderTarget).close();
+        }
+    }
+
+    /**
+     * Strategy Pattern: a fresh strategy for --difficulty
+     */
+    public DifficultyStrategy createDifficulty() {
+        switch (difficultyName) {
+            case "easy":
+                return new EasyDifficulty();
+            case "normal":
+                return new NormalDifficulty();
+            case "hard":
+                return new HardDifficulty();
+            default:
+                throw new IllegalArgumentException("Unknown difficulty: " + difficultyName);
+        }
+    }
+
+    /**
+     * Template Method Pattern: the --map level, or a fresh loader for --level
+     */
+    public LevelLoader createLevel() {
+        if (mapLevel != null) {
+            return mapLevel;
+        }
+        switch (levelName) {
+            case "dungeon":
+                return new DungeonLevelLoader();
+            case "forest":
+                return new ForestLevelLoader();
+            case "castle":
+                return new CastleLevelLoader();
+            case "arena":
+                return new BossArenaLoader();
+            default:
+                throw new IllegalArgumentException("Unknown level: " + levelName);
+        }
+    }
+
+    /**
+     * @return The --map level, or null to let the player pick one
+     */
+    public LevelLoader getMapLevel() { return mapLevel; }
+
+    public Mode getMode() { return mode; }
+    public boolean isAsyncOutput() { return asyncOutput; }
+    public boolean isRenderThread() { return renderThread; }
+    public long getTicks() { return ticks; }
+    public int getRuns() { return runs; }
+    public String getScript() { return script; }
+    public float getSeconds() { return seconds; }
+
+    /**
+     * @return --seed, or null for an unpredictable seed
+     */
+    public Long getSeed() { return seed; }
+
+    /**
+     * @return Where to record games, or null
+     */
+    public Path getRecordFile() { return recordFile; }
+    public Path getReplayFile() { return replayFile; }
+    public int getFromTick() { return fromTick; }
+    public int getToTick() { return toTick; }
+    public int getRepeat() { return repeat; }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static LevelLoader openMap(String file) {
+        try {
+            return new MapFileLevelLoader(Paths.get(file));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot open map " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long parseCount(String value) {
+        try {
+            long count = Long.parseLong(value);
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Not a positive number: " + value);
+    }
+
+    private static int parseTick(String value) {
+        try {
+            int tick = Integer.parseInt(value);
+            if (tick >= 0) {
+                return tick;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Not a tick: " + value);
+    }
+
+    private static long parseSeed(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a seed: " + value);
+        }
+    }
+}
@@ -18,6 +18,18 @@ public class MenuState implements GameState {
     private DifficultyStrategy selectedStrategy;
     private LevelLoader selectedLevel;
     private boolean selectionComplete;
+    private final LaunchOptions options;
+
+    public MenuState() {
+        this(new LaunchOptions());
+    }
+
+    /**
+     * @param options Command line settings, passed on to the next states
+     */
+    public MenuState(LaunchOptions options) {
+        this.options = options;
+    }
 
     @Override
     public void enter() {
@@ -29,7 +41,7 @@ public class MenuState implements GameState {
     public GameState update(float deltaTime) {
         // Show menu and get selections
         if (!selectionComplete) {
-            MainMenu menu = new MainMenu();
+            MainMenu menu = new MainMenu(options.getMapLevel());
             selectedStrategy = menu.show();       // Shows difficulty selection
             selectedLevel = menu.getSelectedLevel();  // Gets level selection
             selectionComplete = true;
@@ -37,7 +49,7 @@ public class MenuState implements GameState {
 
         // Transition to PlayingState with selected strategy and level
         if (selectionComplete && selectedStrategy != null && selectedLevel != null) {
-            return new PlayingState(selectedStrategy, selectedLevel);
+            return new PlayingState(selectedStrategy, selectedLevel, options);
         }
 
         return null; // Stay in menu (shouldn't happen normally)
@@ -5,6 +5,8 @@ import level.LevelLoader;
 import entities.Player;
 import engine.GameEngine;
 
+import java.io.IOException;
+
 /**
  * PlayingState - Dungeon exploration state (Game State Pattern)
  *
@@ -22,9 +24,18 @@ public class PlayingState implements GameState {
     private boolean gameCompleted;
     private boolean reachedExit;
     private Player player;
+    private final LaunchOptions options;
 
     public PlayingState(DifficultyStrategy strategy, LevelLoader levelLoader) {
+        this(strategy, levelLoader, new LaunchOptions());
+    }
+
+    /**
+     * @param options Command line settings (render target, replay recording)
+     */
+    public PlayingState(DifficultyStrategy strategy, LevelLoader levelLoader, LaunchOptions options) {
         this.strategy = strategy;
+        this.options = options;
         this.levelLoader = levelLoader;
         this.gameCompleted = false;
         this.reachedExit = false;
@@ -37,7 +48,16 @@ public class PlayingState implements GameState {
         System.out.println("[PlayingState] Level: " + levelLoader.getClass().getSimpleName());
 
         // Create GameEngine with selected strategy and level loader
-        engine = new GameEngine(strategy, levelLoader);
+        engine = new GameEngine(strategy, levelLoader, options.getRenderTarget());
+        engine.setRenderThreadEnabled(options.isRenderThread());
+        if (options.getRecordFile() != null) {
+            try {
+                engine.recordReplay(options.getRecordFile());
+                System.out.println("[PlayingState] Recording to " + options.getRecordFile());
+            } catch (IOException e) {
+                System.out.println("[PlayingState] Cannot record replay: " + e.getMessage());
+            }
+        }
     }
 
     @Override
@@ -56,10 +76,10 @@ public class PlayingState implements GameState {
         if (gameCompleted) {
             if (reachedExit && player != null && player.isAlive()) {
                 // Player reached exit alive - transition to battle
-                return new BattleState(strategy, player);
+                return new BattleState(strategy, player, engine.getRandomStreams().stream("battle"), options);
             } else {
                 // Player died or quit - transition to defeat
-                return new DefeatState(strategy);
+                return new DefeatState(strategy, options);
             }
         }
 
@@ -15,9 +15,18 @@ public class VictoryState implements GameState {
     private DifficultyStrategy strategy;
     private Scanner scanner;
     private boolean inputProcessed;
+    private final LaunchOptions options;
 
     public VictoryState(DifficultyStrategy strategy) {
+        this(strategy, new LaunchOptions());
+    }
+
+    /**
+     * @param options Command line settings, kept for the next game
+     */
+    public VictoryState(DifficultyStrategy strategy, LaunchOptions options) {
         this.strategy = strategy;
+        this.options = options;
         this.scanner = new Scanner(System.in);
         this.inputProcessed = false;
     }
@@ -36,7 +45,7 @@ public class VictoryState implements GameState {
             inputProcessed = true;
 
             if (input.equals("Y")) {
-                return new MenuState(); // Return to menu
+                return new MenuState(options); // Return to menu
             } else {
                 // Exit game
                 System.out.println("\nThanks for playing!");
@@ -0,0 +1,36 @@
+package input;
+
+import java.io.IOException;
+
+/**
+ * ConsoleInputSource - Non-blocking keyboard input from System.in
+ *
+ * Note: Windows console requires Enter key for input (buffered).
+ * This is a limitation of System.in on Windows - real games use
+ * native libraries or game engines for raw input.
+ */
+public class ConsoleInputSource implements InputSource {
+    @Override
+    public int nextKey() {
+        try {
+            // Check if input is available (non-blocking)
+            if (System.in.available() > 0) {
+                int key = System.in.read();
+
+                // Skip newline/carriage return characters
+                if (key == '\n' || key == '\r') {
+                    return NO_KEY;
+                }
+
+                // Clear remaining input buffer after one key per tick
+                while (System.in.available() > 0) {
+                    System.in.read();
+                }
+                return key;
+            }
+        } catch (IOException e) {
+            // Ignore
+        }
+        return NO_KEY;
+    }
+}
@@ -1,7 +1,6 @@
 package input;
 
 import commands.Command;
-import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -22,6 +21,7 @@ import java.util.Map;
  */
 public class InputHandler {
     private Map<Character, Command> keyBindings;
+    private InputSource source;
 
     /**
      * Week 11-02: Constructor now accepts Map of key bindings
@@ -30,7 +30,15 @@ public class InputHandler {
      * Now: InputHandler(Map<Character, Command> keyBindings) - flexible!
      */
     public InputHandler(Map<Character, Command> keyBindings) {
+        this(keyBindings, new ConsoleInputSource());
+    }
+
+    /**
+     * Same bindings, different key source (e.g. a ScriptedInputSource)
+     */
+    public InputHandler(Map<Character, Command> keyBindings, InputSource source) {
         this.keyBindings = keyBindings;
+        this.source = source;
     }
 
     /**
@@ -46,45 +54,47 @@ public class InputHandler {
      * - Remapping keys? Just change the map configuration
      * - Same handler works for WASD, IJKL, or any key layout
      *
-     * Note: Windows console requires Enter key for input (buffered).
-     * This is a limitation of System.in on Windows - real games use
-     * native libraries or game engines for raw input.
+     * Keys come from an InputSource (keyboard by default, see ConsoleInputSource)
      */
     public void handleInput() {
-        try {
-            // Check if input is available (non-blocking)
-            if (System.in.available() > 0) {
-                int input = System.in.read();
-                char key = (char) input;
+        int input = source.nextKey();
+        if (input == InputSource.NO_KEY) {
+            return;
+        }
+        char key = (char) input;
+
+        // ✅ COMMAND PATTERN: Lookup and execute
+        // Compare with 11-01: No more giant if-else chain!
+        // Convert to lowercase for case-insensitive lookup
+        Command command = keyBindings.get(Character.toLowerCase(key));
+        if (command != null) {
+            command.execute();
+        }
 
-                // Skip newline/carriage return characters
-                if (key == '\n' || key == '\r') {
-                    return;
-                }
+        // Future features are now EASY:
+        // - Space for attack? keyBindings.put(' ', new AttackCommand(player));
+        // - E for interact? keyBindings.put('e', new InteractCommand(player));
+        // - I for inventory? keyBindings.put('i', new InventoryCommand());
+        // - M for map? keyBindings.put('m', new MapCommand());
+        // Each new action = just add to map, NO modification to this method!
+    }
 
-                // ✅ COMMAND PATTERN: Lookup and execute
-                // Compare with 11-01: No more giant if-else chain!
-                // Convert to lowercase for case-insensitive lookup
-                Command command = keyBindings.get(Character.toLowerCase(key));
-                if (command != null) {
-                    command.execute();
-                }
+    /**
+     * @return Command bound to this key, or null
+     */
+    public Command getCommand(int key) {
+        return keyBindings.get(Character.toLowerCase((char) key));
+    }
 
-                // Clear remaining input buffer after processing command
-                while (System.in.available() > 0) {
-                    System.in.read();
-                }
+    public InputSource getSource() {
+        return source;
+    }
 
-                // Future features are now EASY:
-                // - Space for attack? keyBindings.put(' ', new AttackCommand(player));
-                // - E for interact? keyBindings.put('e', new InteractCommand(player));
-                // - I for inventory? keyBindings.put('i', new InventoryCommand());
-                // - M for map? keyBindings.put('m', new MapCommand());
-                // Each new action = just add to map, NO modification to this method!
-            }
-        } catch (IOException e) {
-            // Ignore
-        }
+    /**
+     * Swap the key source, e.g. wrap it in a decorator that records keys
+     */
+    public void setSource(InputSource source) {
+        this.source = source;
     }
 
     /**
@@ -0,0 +1,20 @@
+package input;
+
+/**
+ * InputSource - Where InputHandler gets its key presses from
+ *
+ * Separates "which key was pressed" from "what the key does" (the
+ * Command bindings), so the same bindings work with:
+ * - ConsoleInputSource: the real keyboard via System.in
+ * - ScriptedInputSource: a fixed key sequence (fast-forward runs, replays)
+ */
+public interface InputSource {
+    /** Returned by nextKey() when no key was pressed this tick */
+    int NO_KEY = -1;
+
+    /**
+     * Called once per simulation tick
+     * @return The key pressed this tick, or NO_KEY
+     */
+    int nextKey();
+}
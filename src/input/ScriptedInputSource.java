@@ -0,0 +1,44 @@
+package input;
+
+/**
+ * ScriptedInputSource - Plays back a fixed key script, one character per tick
+ *
+ * Script format: each character is the key for one tick, '.' means
+ * "no key". Example: "dddd....ssss" = right for 4 ticks, wait 4, down 4.
+ * With loop = true the script repeats forever (long balancing runs),
+ * otherwise it returns NO_KEY once it is used up.
+ */
+public class ScriptedInputSource implements InputSource {
+    public static final char IDLE = '.';
+
+    private final String script;
+    private final boolean loop;
+    private int position = 0;
+
+    public ScriptedInputSource(String script, boolean loop) {
+        this.script = script;
+        this.loop = loop;
+    }
+
+    @Override
+    public int nextKey() {
+        if (script.isEmpty()) {
+            return NO_KEY;
+        }
+        if (position >= script.length()) {
+            if (!loop) {
+                return NO_KEY;
+            }
+            position = 0;
+        }
+        char key = script.charAt(position++);
+        return key == IDLE ? NO_KEY : key;
+    }
+
+    /**
+     * Start the script over (reuse one source for several runs)
+     */
+    public void rewind() {
+        position = 0;
+    }
+}
@@ -0,0 +1,56 @@
+package level;
+
+import world.DungeonMap;
+import world.MapFile;
+import world.MappedGameMap;
+import systems.SoundSystem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Template Method Pattern - a level that comes from a MapFile
+ *
+ * New levels no longer need a new Java class and a rebuild: write a map
+ * file (see world.MapConverter) and load it with this class.
+ * The file is mapped, not read, so big worlds load as fast as small ones.
+ */
+public class MapFileLevelLoader extends LevelLoader {
+    private final MappedGameMap map;
+
+    public MapFileLevelLoader(Path file) throws IOException {
+        this.map = MapFile.open(file);
+    }
+
+    @Override
+    protected String getLevelName() {
+        return map.getLevelName().toUpperCase();
+    }
+
+    @Override
+    protected void loadAssets() {
+        System.out.println("  → Mapping " + map.getFile());
+    }
+
+    @Override
+    protected void buildWorld() {
+        DungeonMap.setActiveMap(map);
+        System.out.println("  → World size: " + map.getWidth() + "x" + map.getHeight()
+            + " (" + map.getTiles().getChunkCount() + " chunks, paged in on demand)");
+        System.out.println("  → Wall char: '" + map.getWallChar() + "'");
+        System.out.println("  → Floor char: '" + map.getFloorChar() + "'");
+    }
+
+    @Override
+    protected void spawnEnemies() {
+        System.out.println("  → Goblin char: '" + map.getGoblinChar() + "'");
+        System.out.println("  → Wolf char: '" + map.getWolfChar() + "'");
+        System.out.println("  → Spike char: '" + map.getSpikeChar() + "'");
+    }
+
+    @Override
+    protected void playBackgroundMusic() {
+        String musicPath = "assets/music/" + DungeonMap.getMusic().replace(".ogg", ".wav");
+        SoundSystem.playBackgroundMusic(musicPath);
+    }
+}
@@ -2,6 +2,8 @@ package obstacles;
 
 import world.DungeonMap;
 
+import java.nio.ByteBuffer;
+
 /**
  * Goblin - Patrol obstacle that moves left-right
  *
@@ -32,7 +34,8 @@ public class Goblin implements Obstacle {
         moveTimer += delta;
 
         if (moveTimer >= moveInterval) {
-            moveTimer = 0;
+            // Keep the remainder: the patrol pace stays exact at any tick rate
+            moveTimer -= moveInterval;
 
             // Try to move in current direction
             int newX = Math.round(x) + direction;
@@ -97,4 +100,19 @@ public class Goblin implements Obstacle {
         this.direction = 1;  // Reset to move right
         this.moveTimer = 0;  // Reset movement timer
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putFloat(x).putFloat(y).putFloat(moveTimer)
+            .put((byte) direction).put((byte) (active ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        x = in.getFloat();
+        y = in.getFloat();
+        moveTimer = in.getFloat();
+        direction = in.get();
+        active = in.get() != 0;
+    }
 }
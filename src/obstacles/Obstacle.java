@@ -1,5 +1,7 @@
 package obstacles;
 
+import java.nio.ByteBuffer;
+
 /**
  * Obstacle interface - base contract for all game obstacles
  *
@@ -65,4 +67,17 @@ public interface Obstacle {
      * @param newY New Y coordinate
      */
     void reset(int newX, int newY);
+
+    /**
+     * Write the complete internal state (position, timers, direction...)
+     * Used for replay keyframes and rewind snapshots.
+     * @param out Buffer to append to
+     */
+    void saveState(ByteBuffer out);
+
+    /**
+     * Restore state written by saveState() on an obstacle of the same type
+     * @param in Buffer positioned at the saved state
+     */
+    void loadState(ByteBuffer in);
 }
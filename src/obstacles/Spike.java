@@ -2,6 +2,8 @@ package obstacles;
 
 import world.DungeonMap;
 
+import java.nio.ByteBuffer;
+
 /**
  * Spike - Static obstacle that doesn't move
  *
@@ -76,4 +78,16 @@ public class Spike implements Obstacle {
         this.active = true;
         // No additional state to reset for Spike
     }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putInt(x).putInt(y).put((byte) (active ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        x = in.getInt();
+        y = in.getInt();
+        active = in.get() != 0;
+    }
 }
@@ -2,16 +2,22 @@ package obstacles;
 
 import entities.Entity;
 import world.DungeonMap;
+import world.FieldOfView;
+import world.FlowField;
+
+import java.nio.ByteBuffer;
 
 /**
  * Wolf - Chase obstacle that follows the player
  *
  * Week 13: Uses DungeonMap.getWolfChar() for level-specific appearance
  *
- * Behavior: Moves towards target if within detection range
+ * Behavior: Moves towards target if within detection range and in sight
+ *           (the target's FieldOfView - walls block it)
  * Damage: 25 HP
  * Symbol: Dynamic based on level (e.g., 'w' dungeon, 'W' forest, 'G' castle ghost)
- * Movement: Chase pattern (moves towards target)
+ * Movement: Chase pattern - follows the shared FlowField around walls
+ *           (one BFS per player move, shared by every wolf)
  */
 public class Wolf implements Obstacle {
     private float x;
@@ -21,6 +27,9 @@ public class Wolf implements Obstacle {
     private final int damage = 25;
     private boolean active = true;
     private Entity target;  // Week 11: Reference to Entity (Player/NPC) to chase
+    private FlowField flowField;  // Shortest-path steps towards the target
+    private FieldOfView visibility;  // What the target can see (and so who sees it)
+    private boolean hadTarget;  // Set by loadState()
 
     public Wolf(int x, int y) {
         this.x = (float) x;
@@ -35,52 +44,45 @@ public class Wolf implements Obstacle {
         this.target = target;
     }
 
+    /**
+     * Field that tells this wolf which way leads to its target
+     * (without one the wolf cannot find a path and stays put)
+     */
+    public void setFlowField(FlowField flowField) {
+        this.flowField = flowField;
+    }
+
+    /**
+     * Field of view of the target; the wolf only chases while it is inside
+     * (without one the wolf can't see its target and stays put)
+     */
+    public void setVisibility(FieldOfView visibility) {
+        this.visibility = visibility;
+    }
+
     @Override
     public void update(float delta) {
-        if (target == null) {
+        if (target == null || flowField == null || visibility == null) {
             return;  // No target, no movement
         }
 
-        // Calculate distance to target
+        // Only chase if within detection range (squared - no sqrt needed)
         float dx = target.getX() - x;
         float dy = target.getY() - y;
-        float distance = (float) Math.sqrt(dx * dx + dy * dy);
-
-        // Only chase if within detection range
-        if (distance < detectionRange && distance > 0.5f) {
-            // Normalize direction and move
-            float dirX = dx / distance;
-            float dirY = dy / distance;
-
-            float newX = x + dirX * speed * delta;
-            float newY = y + dirY * speed * delta;
-
-            // Round to grid coordinates
-            int targetX = Math.round(newX);
-            int targetY = Math.round(newY);
-
-            // Only move if target position is walkable (not wall)
-            if (DungeonMap.isWalkable(targetX, targetY)) {
-                x = newX;
-                y = newY;
-            }
-            // If blocked by wall, try moving in only X or Y direction
-            else {
-                // Try moving only horizontally
-                int tryX = Math.round(x + dirX * speed * delta);
-                int tryY = Math.round(y);
-                if (DungeonMap.isWalkable(tryX, tryY)) {
-                    x = x + dirX * speed * delta;
-                }
-                // Try moving only vertically
-                else {
-                    tryX = Math.round(x);
-                    tryY = Math.round(y + dirY * speed * delta);
-                    if (DungeonMap.isWalkable(tryX, tryY)) {
-                        y = y + dirY * speed * delta;
-                    }
-                }
-            }
+        float distanceSquared = dx * dx + dy * dy;
+        if (distanceSquared >= detectionRange * detectionRange || distanceSquared <= 0.25f) {
+            return;
+        }
+        // Line of sight: one bit read in the shared, cached visible set
+        if (!visibility.isVisible(getX(), getY())) {
+            return;
+        }
+
+        // The field only ever points at walkable tiles, so no wall checks here
+        byte direction = flowField.directionAt(getX(), getY());
+        if (direction != FlowField.NONE) {
+            x += FlowField.stepX(direction) * speed * delta;
+            y += FlowField.stepY(direction) * speed * delta;
         }
     }
 
@@ -131,5 +133,32 @@ public class Wolf implements Obstacle {
         this.y = (float) newY;
         this.active = true;
         this.target = null;  // Reset target (will be set by WorldController)
+        this.flowField = null;
+        this.visibility = null;
+    }
+
+    /**
+     * The target itself isn't saved (WorldController re-assigns it every
+     * update), only whether one was set - a wolf without one stands still.
+     */
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.putFloat(x).putFloat(y)
+            .put((byte) (active ? 1 : 0)).put((byte) (target != null ? 1 : 0));
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        x = in.getFloat();
+        y = in.getFloat();
+        active = in.get() != 0;
+        hadTarget = in.get() != 0;
+    }
+
+    /**
+     * True if loadState() found a target was set (WorldController restores it)
+     */
+    public boolean needsTarget() {
+        return hadTarget;
     }
 }
@@ -0,0 +1,28 @@
+package replay;
+
+import input.InputSource;
+
+/**
+ * RecordingInputSource - Decorator that records every key it passes on
+ *
+ * Keys are the entry point of the Command pattern (InputHandler maps
+ * them to Commands), so recording them captures the full command stream.
+ */
+public class RecordingInputSource implements InputSource {
+    private final InputSource source;
+    private final ReplayRecorder recorder;
+
+    public RecordingInputSource(InputSource source, ReplayRecorder recorder) {
+        this.source = source;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public int nextKey() {
+        int key = source.nextKey();
+        if (key != NO_KEY) {
+            recorder.recordKey(key);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,56 @@
+package replay;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ReplayFormat - Layout of .replay files
+ *
+ * Header:
+ *   int    MAGIC ("RPGR")
+ *   byte   VERSION
+ *   long   session seed
+ *   int    tick rate
+ *   int    keyframe interval (ticks)
+ *   str    DifficultyStrategy class name
+ *   str    LevelLoader class name
+ * (str = unsigned short length + UTF-8 bytes)
+ *
+ * Records (one tag byte each), tick numbers as unsigned varints:
+ *   KEYFRAME  tick, length, GameLogic.saveState() bytes
+ *   INPUT     ticks since the previous record, key (1 byte)
+ *   END       final tick
+ *
+ * A minute of play with a few key presses per second is a few KB of
+ * input records; keyframes dominate and are spaced by the interval.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x52504752;
+    // 2: keyframes carry the worked-out spawn chunks (FreeCellSet)
+    static final byte VERSION = 2;
+
+    static final byte KEYFRAME = 'K';
+    static final byte INPUT = 'I';
+    static final byte END = 'E';
+
+    private ReplayFormat() {
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
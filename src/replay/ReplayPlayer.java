@@ -0,0 +1,345 @@
+package replay;
+
+import difficulty.DifficultyStrategy;
+import engine.FastForwardRunner;
+import engine.GameLogic;
+import engine.LatencyHistogram;
+import engine.RewindBuffer;
+import input.InputSource;
+import level.LevelLoader;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * ReplayPlayer - Re-drives GameLogic from a .replay file, headlessly
+ *
+ * The session is rebuilt from the header (difficulty, level, seed) and
+ * the recorded keys are fed back tick by tick, so every tick runs exactly
+ * as it did when recorded.
+ *
+ * seek(tick) jumps anywhere: restore the nearest keyframe at or before
+ * the tick, then simulate the few remaining ticks. benchmark() re-runs a
+ * tick range many times - e.g. to reproduce a player-reported slow frame.
+ *
+ * Rewinds: keyframes don't hold the rewind history, and a recorded rewind
+ * needs the RewindBuffer's full window behind it. A keyframe is only used
+ * when no rewind key follows it within that window (before the ticks to
+ * be played); otherwise seek() falls back to an earlier keyframe, or to
+ * tick 0. Past that many ticks the rebuilt history is the recorded one.
+ *
+ * Like FastForwardRunner, reaching the exit ends the session instead of
+ * starting the (interactive) boss battle: playback stops at the tick that
+ * reached it, and that becomes the end of the replay (recordings made
+ * before the recorder stopped there may go on; that part is skipped).
+ */
+public class ReplayPlayer {
+    private static final PrintStream MUTED = new PrintStream(OutputStream.nullOutputStream());
+
+    private final ByteBuffer data;
+    private final long seed;
+    private final int tickRate;
+    private final int keyframeInterval;
+    private final String strategyName;
+
+    // Index built on load
+    private int keyframeCount = 0;
+    private int[] keyframeTicks = new int[16];
+    private int[] keyframeOffsets = new int[16];
+    private int[] keyframeLengths = new int[16];
+    private int inputCount = 0;
+    private int[] inputTicks = new int[256];
+    private byte[] inputKeys = new byte[256];
+    private int endTick = 0;
+
+    // Ticks whose recorded key is a rewind, and the rewind window in ticks
+    private int rewindCount = 0;
+    private int[] rewindTicks = new int[0];
+    private final int rewindWindow;
+
+    private final ReplayInput input = new ReplayInput();
+    private boolean positioned = false;
+    // The session matches the recording up to this tick (see exactUntil())
+    private int exactUntil = 0;
+    private final GameLogic logic;
+    private final float tickLength;
+
+    private ReplayPlayer(ByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.getInt() != ReplayFormat.MAGIC || data.get() != ReplayFormat.VERSION) {
+            throw new IOException("Not a replay file (or unsupported version)");
+        }
+        this.seed = data.getLong();
+        this.tickRate = data.getInt();
+        this.keyframeInterval = data.getInt();
+        String strategyClass = ReplayFormat.readString(data);
+        String loaderClass = ReplayFormat.readString(data);
+        indexRecords();
+
+        DifficultyStrategy strategy = instantiate(strategyClass, DifficultyStrategy.class);
+        LevelLoader levelLoader = instantiate(loaderClass, LevelLoader.class);
+        this.strategyName = strategy.getName();
+        this.tickLength = 1.0f / tickRate;
+
+        PrintStream console = muteConsole();
+        try {
+            this.logic = FastForwardRunner.createHeadlessSession(strategy, levelLoader, input, seed);
+            // Same rewind settings as GameEngine, so recorded rewinds play back
+            logic.enableRewind(RewindBuffer.DEFAULT_SECONDS * tickRate,
+                RewindBuffer.DEFAULT_STEP_SECONDS * tickRate);
+        } finally {
+            System.setOut(console);
+        }
+        this.rewindWindow = logic.getRewindBuffer().getCapacity();
+        indexRewinds();
+    }
+
+    /**
+     * Load a replay and prepare a session at tick 0
+     */
+    public static ReplayPlayer open(Path file) throws IOException {
+        ReplayPlayer player = new ReplayPlayer(ByteBuffer.wrap(Files.readAllBytes(file)));
+        player.seek(0);
+        return player;
+    }
+
+    /**
+     * Put the simulation at exactly this tick (clamped to the recording)
+     */
+    public void seek(int tick) {
+        position(tick, tick);
+    }
+
+    /**
+     * Seek to tick, from a keyframe that stays exact up to horizon
+     */
+    private void position(int tick, int horizon) {
+        tick = Math.max(0, Math.min(tick, endTick));
+        int current = logic.getFrameCount();
+        int keyframe = usableKeyframe(keyframeAtOrBefore(tick), horizon);
+
+        // Going backwards, further than the next keyframe, or towards a rewind
+        // whose history is missing: restore a keyframe first
+        if (!positioned || tick < current || horizon > exactUntil || keyframeTicks[keyframe] > current) {
+            loadKeyframe(keyframe);
+            // Keyframes taken after the exit was reached are past the end of the replay
+            while (logic.hasReachedExit() && keyframe > 0) {
+                keyframe = usableKeyframe(keyframe - 1, horizon);
+                loadKeyframe(keyframe);
+            }
+        }
+        stepTo(tick);
+    }
+
+    /**
+     * Latest keyframe at or before this one that plays back exactly up to horizon
+     */
+    private int usableKeyframe(int keyframe, int horizon) {
+        while (keyframe > 0 && exactUntil(keyframeTicks[keyframe]) < horizon) {
+            keyframe--;
+        }
+        return keyframe;
+    }
+
+    /**
+     * Starting from the keyframe at this tick, how far does playback match
+     * the recording? Up to the first rewind that comes sooner than a full
+     * rewind window after it (that rewind would find a shorter history).
+     */
+    private int exactUntil(int keyframeTick) {
+        if (keyframeTick == 0) {
+            // The recording started with an empty history too
+            return Integer.MAX_VALUE;
+        }
+        int index = Arrays.binarySearch(rewindTicks, 0, rewindCount, keyframeTick);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index < rewindCount && rewindTicks[index] - keyframeTick < rewindWindow) {
+            return rewindTicks[index];
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    private void loadKeyframe(int keyframe) {
+        ByteBuffer state = data.duplicate();
+        state.position(keyframeOffsets[keyframe]);
+        state.limit(keyframeOffsets[keyframe] + keyframeLengths[keyframe]);
+        PrintStream console = muteConsole();
+        try {
+            logic.loadState(state);
+            logic.clearRewindHistory();
+            positioned = true;
+            exactUntil = exactUntil(keyframeTicks[keyframe]);
+        } finally {
+            System.setOut(console);
+        }
+    }
+
+    /**
+     * Simulate forward to a later tick
+     */
+    public void stepTo(int tick) {
+        int target = Math.min(tick, endTick);
+        if (target > exactUntil) {
+            // A rewind ahead needs history this session doesn't have
+            seek(target);
+            return;
+        }
+        PrintStream console = muteConsole();
+        try {
+            while (logic.getFrameCount() < target && !logic.hasReachedExit()) {
+                logic.step(tickLength);
+            }
+        } finally {
+            System.setOut(console);
+        }
+        stopAtExit();
+    }
+
+    /**
+     * Replay ticks [fromTick, toTick) repetitions times and time every tick.
+     * The same inputs and state run each time, so results are comparable
+     * across builds.
+     */
+    public LatencyHistogram benchmark(int fromTick, int toTick, int repetitions) {
+        LatencyHistogram tickTimes = new LatencyHistogram();
+        int end = Math.min(toTick, endTick);
+        PrintStream console = muteConsole();
+        try {
+            for (int r = 0; r < repetitions; r++) {
+                System.setOut(console);
+                position(fromTick, end);
+                System.setOut(MUTED);
+                while (logic.getFrameCount() < end && !logic.hasReachedExit()) {
+                    long start = System.nanoTime();
+                    logic.step(tickLength);
+                    tickTimes.record(System.nanoTime() - start);
+                }
+            }
+        } finally {
+            System.setOut(console);
+        }
+        stopAtExit();
+        return tickTimes;
+    }
+
+    /**
+     * Past the exit the recorded game ran the battle, which playback can't
+     * reproduce - so the replay ends where the exit was reached
+     */
+    private void stopAtExit() {
+        if (logic.hasReachedExit()) {
+            endTick = Math.min(endTick, logic.getFrameCount());
+        }
+    }
+
+    public GameLogic getLogic() { return logic; }
+    public long getSeed() { return seed; }
+    public int getTickRate() { return tickRate; }
+    public int getKeyframeInterval() { return keyframeInterval; }
+    public int getKeyframeCount() { return keyframeCount; }
+    public int getInputCount() { return inputCount; }
+    public int getEndTick() { return endTick; }
+    public String getDifficultyName() { return strategyName; }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Loading
+    // ═══════════════════════════════════════════════════════════════
+
+    private void indexRecords() throws IOException {
+        int tick = 0;
+        while (data.hasRemaining()) {
+            byte tag = data.get();
+            if (tag == ReplayFormat.KEYFRAME) {
+                tick = ReplayFormat.readVarint(data);
+                int length = ReplayFormat.readVarint(data);
+                addKeyframe(tick, data.position(), length);
+                data.position(data.position() + length);
+            } else if (tag == ReplayFormat.INPUT) {
+                tick += ReplayFormat.readVarint(data);
+                addInput(tick, data.get());
+            } else if (tag == ReplayFormat.END) {
+                endTick = ReplayFormat.readVarint(data);
+                break;
+            } else {
+                throw new IOException("Corrupt replay: unknown record " + tag);
+            }
+        }
+        if (keyframeCount == 0) {
+            throw new IOException("Replay has no keyframe");
+        }
+        // A recording cut short (crash) still plays up to its last record
+        endTick = Math.max(endTick, tick);
+    }
+
+    private void indexRewinds() {
+        rewindTicks = new int[inputCount];
+        for (int i = 0; i < inputCount; i++) {
+            if (logic.isRewindKey(inputKeys[i] & 0xFF)) {
+                rewindTicks[rewindCount++] = inputTicks[i];
+            }
+        }
+    }
+
+    private void addKeyframe(int tick, int offset, int length) {
+        if (keyframeCount == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframeCount * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframeCount * 2);
+            keyframeLengths = Arrays.copyOf(keyframeLengths, keyframeCount * 2);
+        }
+        keyframeTicks[keyframeCount] = tick;
+        keyframeOffsets[keyframeCount] = offset;
+        keyframeLengths[keyframeCount] = length;
+        keyframeCount++;
+    }
+
+    private void addInput(int tick, byte key) {
+        if (inputCount == inputTicks.length) {
+            inputTicks = Arrays.copyOf(inputTicks, inputCount * 2);
+            inputKeys = Arrays.copyOf(inputKeys, inputCount * 2);
+        }
+        inputTicks[inputCount] = tick;
+        inputKeys[inputCount] = key;
+        inputCount++;
+    }
+
+    private int keyframeAtOrBefore(int tick) {
+        int index = Arrays.binarySearch(keyframeTicks, 0, keyframeCount, tick);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+
+    private static <T> T instantiate(String className, Class<T> type) throws IOException {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IOException("Replay refers to unknown " + type.getSimpleName() + ": " + className, e);
+        }
+    }
+
+    private static PrintStream muteConsole() {
+        PrintStream console = System.out;
+        System.setOut(MUTED);
+        return console;
+    }
+
+    /**
+     * Feeds recorded keys back in, matched by the tick being simulated
+     */
+    private class ReplayInput implements InputSource {
+        @Override
+        public int nextKey() {
+            int tick = logic.getFrameCount();
+            int index = Arrays.binarySearch(inputTicks, 0, inputCount, tick);
+            if (index < 0) {
+                return NO_KEY;
+            }
+            return inputKeys[index] & 0xFF;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package replay;
+
+import difficulty.DifficultyStrategy;
+import engine.GameLogic;
+import level.LevelLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * ReplayRecorder - Captures a session as a .replay file (see ReplayFormat)
+ *
+ * - GameLogic.step() calls beginTick() before handling input; every
+ *   keyframeInterval ticks the full simulation state is saved
+ * - RecordingInputSource calls recordKey() for each key pressed
+ *
+ * Records are encoded into a small in-memory chunk; full chunks go to a
+ * ReplayWriter thread, so the tick never waits for the disk.
+ *
+ * The game can end through System.exit() (quit key, boss battle), so a
+ * shutdown hook closes the file if close() was never called.
+ *
+ * The boss battle reads its answers from the console and isn't recorded,
+ * so GameLogic closes the recording as soon as the exit is reached: the
+ * replay ends with the tick that reached it.
+ */
+public class ReplayRecorder {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 300;  // 5 seconds at 60 ticks/sec
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final ReplayWriter writer;
+    private final int keyframeInterval;
+    private final ByteArrayOutputStream chunk = new ByteArrayOutputStream(CHUNK_SIZE * 2);
+    private ByteBuffer stateBuffer = ByteBuffer.allocate(4096);
+
+    private int currentTick = 0;
+    private int lastRecordTick = 0;
+    private boolean hasKeyframe = false;
+    private boolean closed = false;
+    private final Thread shutdownHook;
+
+    /**
+     * @param file Where to write the replay
+     * @param seed Session seed (RandomStreams.getSeed())
+     * @param tickRate Simulation ticks per second
+     * @param strategy Difficulty of the session
+     * @param levelLoader Level of the session
+     * @param keyframeInterval Ticks between full-state keyframes
+     */
+    public ReplayRecorder(Path file, long seed, int tickRate, DifficultyStrategy strategy,
+                          LevelLoader levelLoader, int keyframeInterval) throws IOException {
+        this.writer = new ReplayWriter(file);
+        this.keyframeInterval = Math.max(1, keyframeInterval);
+
+        putInt(ReplayFormat.MAGIC);
+        chunk.write(ReplayFormat.VERSION);
+        putLong(seed);
+        putInt(tickRate);
+        putInt(this.keyframeInterval);
+        putString(strategy.getClass().getName());
+        putString(levelLoader.getClass().getName());
+
+        this.shutdownHook = new Thread(this::closeQuietly, "replay-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Called at the start of every tick (before input is read)
+     */
+    public void beginTick(GameLogic logic) {
+        if (closed) {
+            return;
+        }
+        currentTick = logic.getFrameCount();
+        if (!hasKeyframe || currentTick % keyframeInterval == 0) {
+            writeKeyframe(logic);
+        }
+    }
+
+    /**
+     * A key was pressed during the current tick
+     */
+    public void recordKey(int key) {
+        if (closed) {
+            return;
+        }
+        chunk.write(ReplayFormat.INPUT);
+        putVarint(currentTick - lastRecordTick);
+        chunk.write(key);
+        lastRecordTick = currentTick;
+        flushIfFull();
+    }
+
+    /**
+     * Write the END record and finish the file (after the last tick completed,
+     * or during the tick that reached the exit). Later calls do nothing.
+     */
+    public void close() throws IOException {
+        finish(hasKeyframe ? currentTick + 1 : 0);
+    }
+
+    private synchronized void finish(int endTick) throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        chunk.write(ReplayFormat.END);
+        putVarint(endTick);
+        writer.submit(chunk.toByteArray());
+        chunk.reset();
+        writer.close();
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // Already shutting down (we were called from the hook)
+        }
+    }
+
+    public long getBytesWritten() {
+        return writer.getBytesWritten();
+    }
+
+    private void closeQuietly() {
+        try {
+            // System.exit() came from inside a tick (quit key): that tick never finished
+            finish(currentTick);
+        } catch (IOException e) {
+            // Nothing sensible to do while the JVM exits
+        }
+    }
+
+    private void writeKeyframe(GameLogic logic) {
+        int needed = logic.getStateSizeHint();
+        if (stateBuffer.capacity() < needed) {
+            stateBuffer = ByteBuffer.allocate(Math.max(needed, stateBuffer.capacity() * 2));
+        }
+        stateBuffer.clear();
+        logic.saveState(stateBuffer);
+
+        chunk.write(ReplayFormat.KEYFRAME);
+        putVarint(currentTick);
+        putVarint(stateBuffer.position());
+        chunk.write(stateBuffer.array(), 0, stateBuffer.position());
+        lastRecordTick = currentTick;
+        hasKeyframe = true;
+        flushIfFull();
+    }
+
+    private void flushIfFull() {
+        if (chunk.size() >= CHUNK_SIZE) {
+            writer.submit(chunk.toByteArray());
+            chunk.reset();
+        }
+    }
+
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            chunk.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        chunk.write(value);
+    }
+
+    private void putInt(int value) {
+        chunk.write(value >>> 24);
+        chunk.write(value >>> 16);
+        chunk.write(value >>> 8);
+        chunk.write(value);
+    }
+
+    private void putLong(long value) {
+        putInt((int) (value >>> 32));
+        putInt((int) value);
+    }
+
+    private void putString(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        chunk.write(bytes.length >>> 8);
+        chunk.write(bytes.length);
+        chunk.write(bytes, 0, bytes.length);
+    }
+}
@@ -0,0 +1,83 @@
+package replay;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * ReplayWriter - Writes replay chunks to disk on a background thread
+ *
+ * The game thread only hands over finished byte chunks; file I/O (and
+ * any disk stall) happens on the writer thread, never inside a tick.
+ */
+class ReplayWriter {
+    // Empty chunk = "no more data"
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<>();
+    private final OutputStream out;
+    private final Thread thread;
+    private volatile IOException failure;
+    private long bytesWritten = 0;
+
+    ReplayWriter(Path file) throws IOException {
+        this.out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        this.thread = new Thread(this::drain, "replay-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    void submit(byte[] chunk) {
+        if (chunk.length > 0) {
+            chunks.add(chunk);
+        }
+    }
+
+    /**
+     * Write everything queued so far, close the file and stop the thread
+     */
+    void close() throws IOException {
+        chunks.add(END_OF_STREAM);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                byte[] chunk = chunks.take();
+                if (chunk == END_OF_STREAM) {
+                    break;
+                }
+                out.write(chunk);
+                bytesWritten += chunk.length;
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+    }
+}
@@ -31,9 +31,17 @@ public class MainMenu {
     private LevelLoader selectedLevel;
 
     public MainMenu() {
+        this(null);
+    }
+
+    /**
+     * @param fixedLevel Level chosen on the command line (e.g. a map file);
+     *                   null = let the player pick one
+     */
+    public MainMenu(LevelLoader fixedLevel) {
         this.scanner = new Scanner(System.in);
         this.selectedStrategy = null;
-        this.selectedLevel = null;
+        this.selectedLevel = fixedLevel;
     }
 
     /**
@@ -99,6 +107,17 @@ public class MainMenu {
         // ════════════════════════════════════════════════════════════
         // STEP 2: Select Level (Template Method Pattern)
         // ════════════════════════════════════════════════════════════
+        if (selectedLevel == null) {
+            selectLevel();
+        }
+
+        System.out.println("\nPress Enter to start loading level...");
+        scanner.nextLine();
+
+        return selectedStrategy;
+    }
+
+    private void selectLevel() {
         System.out.println("\n╔════════════════════════════════════════╗");
         System.out.println("║                                        ║");
         System.out.println("║  SELECT LEVEL:                         ║");
@@ -144,11 +163,6 @@ public class MainMenu {
                 selectedLevel = new DungeonLevelLoader();
                 break;
         }
-
-        System.out.println("\nPress Enter to start loading level...");
-        scanner.nextLine();
-
-        return selectedStrategy;
     }
 
     /**
@@ -0,0 +1,212 @@
+package utils;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * AnsiEncoder - Allocation-free encoder for ANSI terminal frames
+ *
+ * Writes cursor-position sequences and glyphs straight into a reusable
+ * byte buffer instead of building Strings with String.format().
+ *
+ * Why:
+ * - String.format("\033[%d;%dH", ...) allocates a Formatter, a varargs
+ *   array and a String for EVERY cell drawn
+ * - GameEngine draws dozens of cells per frame, so that was most of our garbage
+ *
+ * How:
+ * - Cursor sequences are stitched together from precomputed per-row
+ *   ("ESC[row;") and per-column ("colH") byte tables
+ * - Glyphs are encoded once with the console charset and cached per
+ *   encoder, so encoders on different threads share no mutable state
+ * - The buffer only grows; after the first few frames nothing is allocated
+ */
+public final class AnsiEncoder {
+    // Rows/columns covered by the lookup tables (larger values still work, just slower)
+    private static final int TABLE_SIZE = 512;
+
+    private static final byte[][] ROW_PREFIX = new byte[TABLE_SIZE][];
+    private static final byte[][] COL_SUFFIX = new byte[TABLE_SIZE][];
+
+    static {
+        for (int i = 0; i < TABLE_SIZE; i++) {
+            // ANSI uses 1-based indexing
+            ROW_PREFIX[i] = ("\033[" + (i + 1) + ";").getBytes(StandardCharsets.US_ASCII);
+            COL_SUFFIX[i] = ((i + 1) + "H").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    // Console charset (matches what System.out.print would have used)
+    private static final Charset CONSOLE_CHARSET = detectConsoleCharset();
+
+    private byte[] buffer;
+    private int length;
+
+    // Encoded non-ASCII glyphs, paged by high byte: glyphPages[c >>> 8][c & 0xFF]
+    private final byte[][][] glyphPages = new byte[256][][];
+
+    public AnsiEncoder(int initialCapacity) {
+        this.buffer = new byte[Math.max(16, initialCapacity)];
+        this.length = 0;
+    }
+
+    /**
+     * Discard buffered bytes (keeps the backing array for reuse)
+     */
+    public void reset() {
+        length = 0;
+    }
+
+    /**
+     * Append cursor-position sequence for a 0-based grid coordinate.
+     * @param x Column (0-based)
+     * @param y Row (0-based)
+     */
+    public void cursorTo(int x, int y) {
+        if (y >= 0 && y < TABLE_SIZE && x >= 0 && x < TABLE_SIZE) {
+            putBytes(ROW_PREFIX[y]);
+            putBytes(COL_SUFFIX[x]);
+        } else {
+            putByte((byte) 0x1B);
+            putByte((byte) '[');
+            putInt(y + 1);
+            putByte((byte) ';');
+            putInt(x + 1);
+            putByte((byte) 'H');
+        }
+    }
+
+    /**
+     * Append a single glyph, encoded with the console charset.
+     */
+    public void putChar(char c) {
+        if (c < 0x80) {
+            putByte((byte) c);
+            return;
+        }
+        if (Character.isSurrogate(c)) {
+            // Lone surrogate halves can't be encoded on their own; use putText for pairs
+            putByte((byte) '?');
+            return;
+        }
+        putBytes(glyph(c));
+    }
+
+    /**
+     * Append text (surrogate pairs are encoded as one code point).
+     */
+    public void putText(CharSequence text) {
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // Rare (emoji); encoding a 2-char String here is acceptable
+                putBytes(text.subSequence(i, i + 2).toString().getBytes(CONSOLE_CHARSET));
+                i++;
+            } else {
+                putChar(c);
+            }
+        }
+    }
+
+    /**
+     * Append a run of glyphs from a char array.
+     */
+    public void putChars(char[] chars, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            putChar(chars[i]);
+        }
+    }
+
+    /**
+     * Append a decimal integer without allocating.
+     */
+    public void putInt(int value) {
+        if (value < 0) {
+            putByte((byte) '-');
+            value = -value;
+        }
+        if (value < 10) {
+            putByte((byte) ('0' + value));
+            return;
+        }
+        int digits = 0;
+        for (int v = value; v > 0; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(length + digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    /**
+     * Append raw pre-encoded bytes (e.g. escape sequences).
+     */
+    public void putBytes(byte[] bytes) {
+        putBytes(bytes, 0, bytes.length);
+    }
+
+    public void putBytes(byte[] bytes, int offset, int count) {
+        ensureCapacity(length + count);
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+    }
+
+    public void putByte(byte b) {
+        ensureCapacity(length + 1);
+        buffer[length++] = b;
+    }
+
+    public byte[] array() {
+        return buffer;
+    }
+
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Encode a glyph with the console charset (cached after first use).
+     */
+    private byte[] glyph(char c) {
+        byte[][] page = glyphPages[c >>> 8];
+        if (page == null) {
+            page = new byte[256][];
+            glyphPages[c >>> 8] = page;
+        }
+        byte[] encoded = page[c & 0xFF];
+        if (encoded == null) {
+            encoded = String.valueOf(c).getBytes(CONSOLE_CHARSET);
+            page[c & 0xFF] = encoded;
+        }
+        return encoded;
+    }
+
+    public static Charset getConsoleCharset() {
+        return CONSOLE_CHARSET;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > buffer.length) {
+            byte[] grown = new byte[Math.max(required, buffer.length * 2)];
+            System.arraycopy(buffer, 0, grown, 0, length);
+            buffer = grown;
+        }
+    }
+
+    private static Charset detectConsoleCharset() {
+        // Windows sets sun.stdout.encoding to the console code page
+        String encoding = System.getProperty("sun.stdout.encoding");
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (RuntimeException e) {
+                // Fall through to default
+            }
+        }
+        return Charset.defaultCharset();
+    }
+}
@@ -0,0 +1,166 @@
+package utils;
+
+/**
+ * AsyncFrameWriter - Writes frames on a background thread
+ *
+ * Over SSH or a slow serial console a single stdout write can block for
+ * longer than a frame. Here the game loop only copies the bytes into a
+ * slot; a writer thread does the blocking write through the wrapped
+ * target (normally StdoutSink).
+ *
+ * Bounded to one slot:
+ * - The writer is busy with frame N, the slot holds frame N+1
+ * - While the slot is still full, isReady() is false and the renderer
+ *   skips frame N+2 entirely (it is never encoded). Its FrameBuffer still
+ *   remembers the last frame actually sent, so the next diff merges every
+ *   change since then.
+ * => A slow link lowers the visual frame rate, not the simulation rate.
+ *
+ * Non-frame writes (cursor toggles, notifications) are never dropped:
+ * they are appended to the slot, keeping output order intact.
+ */
+public final class AsyncFrameWriter implements RenderTarget {
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final RenderTarget sink;
+    private final Thread writerThread;
+    private final Object lock = new Object();
+
+    // Guarded by lock: the pending slot and the buffer the writer is draining
+    private byte[] slot = new byte[INITIAL_CAPACITY];
+    private int slotLength = 0;
+    private byte[] writing = new byte[INITIAL_CAPACITY];
+    private boolean writerBusy = false;
+    private boolean running = true;
+
+    private final long startTime = System.nanoTime();
+    private volatile long bytesWritten = 0;
+    private volatile long framesWritten = 0;
+    private long droppedFrames = 0;
+
+    public AsyncFrameWriter(RenderTarget sink) {
+        this.sink = sink;
+        this.writerThread = new Thread(this::drain, "frame-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        synchronized (lock) {
+            if (slotLength + length > slot.length) {
+                byte[] grown = new byte[Math.max(slotLength + length, slot.length * 2)];
+                System.arraycopy(slot, 0, grown, 0, slotLength);
+                slot = grown;
+            }
+            System.arraycopy(bytes, offset, slot, slotLength, length);
+            slotLength += length;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public boolean isReady() {
+        synchronized (lock) {
+            return slotLength == 0;
+        }
+    }
+
+    @Override
+    public void onFrameDropped() {
+        droppedFrames++;
+    }
+
+    @Override
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return sink.isInteractive();
+    }
+
+    /**
+     * @return Bytes that actually reached the wrapped target
+     */
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+
+    /**
+     * @return Average throughput of the link since this writer was created
+     */
+    public double getBytesPerSecond() {
+        double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+        return seconds > 0 ? bytesWritten / seconds : 0;
+    }
+
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            while (slotLength > 0 || writerBusy) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write out whatever is pending and stop the writer thread
+     */
+    public void close() {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            int length;
+            synchronized (lock) {
+                writerBusy = false;
+                lock.notifyAll();
+                while (slotLength == 0 && running) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (slotLength == 0) {
+                    return;
+                }
+                // Take the slot; the producer keeps filling the other buffer
+                byte[] taken = slot;
+                slot = writing;
+                writing = taken;
+                length = slotLength;
+                slotLength = 0;
+                writerBusy = true;
+            }
+
+            sink.write(writing, 0, length);
+            bytesWritten += length;
+            framesWritten++;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * EncodedRows - A static tile grid encoded to terminal bytes on demand
+ *
+ * Rows are encoded in segments of SEGMENT_WIDTH columns, stored as the
+ * exact bytes the console charset produces (box-drawing glyphs are 3 bytes
+ * in UTF-8) plus the byte offset of every column. Any horizontal slice of
+ * a segment can then be written with a single array copy - no per-char
+ * encoding, no glyph lookups.
+ *
+ * Only segments that are actually shown get encoded, in a small
+ * direct-mapped cache, so memory does not grow with the world: a 25x25
+ * map is encoded once and stays cached, a 4096x4096 world only ever
+ * holds the neighbourhood of the camera.
+ *
+ * Built once per map (see GameMap.encodeBackground()); used by the renderer only.
+ */
+public final class EncodedRows {
+    private static final int SEGMENT_BITS = 5;
+    private static final int SEGMENT_WIDTH = 1 << SEGMENT_BITS;
+    // Power of two, bigger than two segments x the tallest view
+    private static final int CACHE_SLOTS = 256;
+
+    private final TileRows tiles;
+
+    private final long[] slotKey = new long[CACHE_SLOTS];
+    private final byte[][] slotBytes = new byte[CACHE_SLOTS][];
+    // slotStart[slot][x] = byte offset of column x; [width] = segment length
+    private final int[][] slotStart = new int[CACHE_SLOTS][SEGMENT_WIDTH + 1];
+    private final int[] slotWidth = new int[CACHE_SLOTS];
+
+    private final char[] segmentChars = new char[SEGMENT_WIDTH];
+    private final AnsiEncoder encoder = new AnsiEncoder(SEGMENT_WIDTH * 4);
+
+    public EncodedRows(TileRows tiles) {
+        this.tiles = tiles;
+        Arrays.fill(slotKey, -1L);
+    }
+
+    /**
+     * Append columns [fromX, fromX + count) of row y (one bulk copy per segment)
+     */
+    public void appendRow(AnsiEncoder out, int y, int fromX, int count) {
+        int x = fromX;
+        int end = fromX + count;
+        while (x < end) {
+            int segment = x >>> SEGMENT_BITS;
+            int slot = encodedSlot(y, segment);
+            int segmentStart = segment << SEGMENT_BITS;
+            int from = x - segmentStart;
+            int to = Math.min(end - segmentStart, slotWidth[slot]);
+            if (to <= from) {
+                break;
+            }
+            int[] starts = slotStart[slot];
+            out.putBytes(slotBytes[slot], starts[from], starts[to] - starts[from]);
+            x = segmentStart + to;
+        }
+    }
+
+    /**
+     * Copy the tile chars of a row slice (what appendRow() put on screen)
+     */
+    public int copyChars(int y, int fromX, char[] dst, int count) {
+        return tiles.copyRow(y, fromX, dst, 0, count);
+    }
+
+    public int getRowWidth(int y) {
+        return tiles.getWidth();
+    }
+
+    public int getHeight() {
+        return tiles.getHeight();
+    }
+
+    private int encodedSlot(int y, int segment) {
+        // Rows of one view never collide: 2y + segment is unique across two segments
+        int slot = (2 * y + segment) & (CACHE_SLOTS - 1);
+        long key = ((long) y << 32) | segment;
+        if (slotKey[slot] != key) {
+            encode(slot, y, segment);
+            slotKey[slot] = key;
+        }
+        return slot;
+    }
+
+    private void encode(int slot, int y, int segment) {
+        int width = tiles.copyRow(y, segment << SEGMENT_BITS, segmentChars, 0, SEGMENT_WIDTH);
+        int[] starts = slotStart[slot];
+        encoder.reset();
+        for (int x = 0; x < width; x++) {
+            starts[x] = encoder.size();
+            encoder.putChar(segmentChars[x]);
+        }
+        starts[width] = encoder.size();
+
+        byte[] bytes = slotBytes[slot];
+        if (bytes == null || bytes.length < encoder.size()) {
+            bytes = new byte[Math.max(encoder.size(), SEGMENT_WIDTH * 3)];
+            slotBytes[slot] = bytes;
+        }
+        System.arraycopy(encoder.array(), 0, bytes, 0, encoder.size());
+        slotWidth[slot] = width;
+    }
+}
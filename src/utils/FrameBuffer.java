@@ -0,0 +1,175 @@
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * FrameBuffer - Front/back character framebuffers with diff output
+ *
+ * Game code paints the WHOLE logical frame into the back buffer.
+ * present() compares it with the front buffer (what the terminal shows)
+ * and emits only the cells that changed.
+ *
+ * Run coalescing:
+ * - Adjacent changed cells on one row become ONE cursor move + a run of glyphs
+ * - Short gaps of unchanged cells are bridged (re-sending 1-2 glyphs is
+ *   cheaper than another ~8 byte cursor sequence)
+ *
+ * This replaces the hand-rolled dirty tracking (prevPlayerX, prevCoinX,
+ * prevObstaclePositions, 3x3 redraw) that used to live in GameEngine.
+ */
+public class FrameBuffer {
+    // Marks a front cell as "unknown" so the next present() repaints it
+    private static final char INVALID = '\0';
+
+    // Unchanged cells allowed inside a run before we start a new cursor move
+    private static final int MAX_BRIDGE_GAP = 2;
+
+    private final int width;
+    private final int height;
+    private final char[] front;
+    private final char[] back;
+
+    public FrameBuffer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.front = new char[width * height];
+        this.back = new char[width * height];
+        invalidate();
+    }
+
+    /**
+     * Paint one cell of the next frame (out-of-bounds calls are ignored)
+     */
+    public void put(char symbol, int x, int y) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+            back[y * width + x] = symbol;
+        }
+    }
+
+    /**
+     * Paint a whole row segment of the next frame (bulk copy)
+     */
+    public void putRow(char[] row, int srcX, int x, int y, int count) {
+        copyRow(back, row, srcX, x, y, count);
+    }
+
+    /**
+     * Record that the terminal already shows this row segment
+     * (it was written in bulk, bypassing present()).
+     */
+    public void markShown(char[] row, int srcX, int x, int y, int count) {
+        copyRow(front, row, srcX, x, y, count);
+    }
+
+    /**
+     * Record that every cell on the terminal shows this symbol
+     * (e.g. ' ' right after the screen was cleared).
+     */
+    public void markAllShown(char symbol) {
+        Arrays.fill(front, symbol);
+    }
+
+    private void copyRow(char[] target, char[] row, int srcX, int x, int y, int count) {
+        if (y < 0 || y >= height) {
+            return;
+        }
+        if (x < 0) {
+            srcX -= x;
+            count += x;
+            x = 0;
+        }
+        count = Math.min(count, Math.min(width - x, row.length - srcX));
+        if (count > 0) {
+            System.arraycopy(row, srcX, target, y * width + x, count);
+        }
+    }
+
+    /**
+     * Fill the whole back buffer
+     */
+    public void fill(char symbol) {
+        Arrays.fill(back, symbol);
+    }
+
+    public char get(int x, int y) {
+        return back[y * width + x];
+    }
+
+    /**
+     * Forget what the terminal shows - next present() repaints every cell.
+     * Use after clearing the screen or when something else drew over the grid.
+     */
+    public void invalidate() {
+        Arrays.fill(front, INVALID);
+    }
+
+    /**
+     * Shift the front buffer to match a terminal that just scrolled its
+     * grid rows (see GridRenderer.scrollView). Newly exposed rows are
+     * invalidated, so the next present() only paints those plus real changes.
+     *
+     * @param dy Rows the content moved UP (negative = moved down)
+     */
+    public void scrollRows(int dy) {
+        int rows = Math.abs(dy);
+        if (rows >= height) {
+            invalidate();
+            return;
+        }
+        int kept = (height - rows) * width;
+        if (dy > 0) {
+            System.arraycopy(front, rows * width, front, 0, kept);
+            Arrays.fill(front, kept, height * width, INVALID);
+        } else if (dy < 0) {
+            System.arraycopy(front, 0, front, rows * width, kept);
+            Arrays.fill(front, 0, rows * width, INVALID);
+        }
+    }
+
+    /**
+     * Emit changed cells into the encoder and make the back buffer current.
+     *
+     * @param out Encoder to append to
+     * @param originX Screen column of grid cell (0, 0)
+     * @param originY Screen row of grid cell (0, 0)
+     * @return Number of cells emitted
+     */
+    public int present(AnsiEncoder out, int originX, int originY) {
+        int emitted = 0;
+        for (int y = 0; y < height; y++) {
+            int rowStart = y * width;
+            int x = 0;
+            while (x < width) {
+                if (back[rowStart + x] == front[rowStart + x]) {
+                    x++;
+                    continue;
+                }
+
+                // Find end of run, bridging short unchanged gaps
+                int runEnd = x + 1;
+                int scan = runEnd;
+                while (scan < width && scan - runEnd <= MAX_BRIDGE_GAP) {
+                    if (back[rowStart + scan] != front[rowStart + scan]) {
+                        runEnd = scan + 1;
+                    }
+                    scan++;
+                }
+
+                out.cursorTo(originX + x, originY + y);
+                out.putChars(back, rowStart + x, runEnd - x);
+                System.arraycopy(back, rowStart + x, front, rowStart + x, runEnd - x);
+                emitted += runEnd - x;
+                x = runEnd;
+            }
+        }
+        return emitted;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -1,5 +1,7 @@
 package utils;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Static utility class for rendering the game grid to terminal.
  * Uses simple character-based representation.
@@ -8,6 +10,17 @@ package utils;
  * This eliminates hard-coded constants - grid size comes from DungeonMap
  *
  * Week 11: Added double buffering to reduce flickering
+ * Performance: Frame buffer is an AnsiEncoder (no String.format per cell)
+ * Performance: Optional front/back FrameBuffer - paint the whole frame,
+ *              only changed cells are sent to the terminal
+ * Performance: Viewport offset - the grid is a window onto a bigger world,
+ *              vertical camera moves use terminal scroll regions
+ *
+ * Two halves:
+ * - Static methods draw immediately (cursor, menus, one-off text)
+ * - An instance is one frame pipeline: its own back/front buffers, encoder
+ *   and camera. Whoever renders frames (the game loop, or engine.RenderThread)
+ *   owns its instance, so nothing about a frame is shared between threads
  */
 public class GridRenderer {
     private static final char EMPTY_CELL = '░';
@@ -16,40 +29,201 @@ public class GridRenderer {
     private static int cachedWidth = 25;
     private static int cachedHeight = 25;
 
+    // Scratch encoder for unbuffered (immediate) draw calls
+    private static final AnsiEncoder directBuffer = new AnsiEncoder(256);
+
+    // Performance: frames go to fd 1 in a single channel write (no PrintStream)
+    // Pluggable: HeadlessRenderTarget disables output but counts the bytes
+    private static RenderTarget target = new StdoutSink();
+
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] HIDE_CURSOR = "\033[?25l".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SHOW_CURSOR = "\033[?25h".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLEAR_SCREEN = "\033[H\033[2J".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NOTIFICATION_CLEAR =
+        "                                                                  ".getBytes(StandardCharsets.US_ASCII);
+
+    // Reset scroll region to the full screen
+    private static final byte[] RESET_SCROLL_REGION = "\033[r".getBytes(StandardCharsets.US_ASCII);
+
+    // ═══════════════════════════════════════════════════════════════
+    // Frame pipeline (one per renderer)
+    // ═══════════════════════════════════════════════════════════════
+
+    // Grid (viewport) size in cells - not the world size
+    private final int width;
+    private final int height;
+    private final RenderTarget frameTarget;
+
     // Week 11: Double buffering to reduce flickering
-    private static StringBuilder renderBuffer = new StringBuilder(1024);
-    private static boolean bufferingEnabled = false;
+    // Performance: byte buffer + precomputed cursor tables instead of StringBuilder/String.format
+    private final AnsiEncoder renderBuffer = new AnsiEncoder(4096);
+
+    // Diff rendering: what the terminal shows vs. the frame being painted
+    private final FrameBuffer frameBuffer;
+
+    // World coordinate shown in the top-left grid cell (camera position)
+    private int viewOffsetX = 0;
+    private int viewOffsetY = 0;
+
+    // One background row of the viewport, copied out of the map's tiles
+    private final char[] rowScratch;
 
     /**
-     * Clears the terminal screen using ANSI escape codes.
-     * This moves cursor to home and clears the entire screen.
-     * Only used for initial setup.
+     * Front/back buffer diff rendering for a grid of the given size.
+     * Between beginFrame() and endFrame(), paintCell() writes the next frame
+     * and endFrame() emits the diff.
+     *
+     * @param width Grid (viewport) width in cells - not the world width
+     * @param height Grid (viewport) height in cells
+     * @param frameTarget Where finished frames are written
      */
-    public static void clearScreen() {
-        // ANSI escape codes for clearing screen
-        // \033[H - Move cursor to home (0,0)
-        // \033[2J - Clear entire screen
-        System.out.print("\033[H\033[2J");
-        System.out.flush();
+    public GridRenderer(int width, int height, RenderTarget frameTarget) {
+        this.width = width;
+        this.height = height;
+        this.frameTarget = frameTarget;
+        this.frameBuffer = new FrameBuffer(width, height);
+        this.rowScratch = new char[width];
+    }
+
+    public RenderTarget getFrameTarget() {
+        return frameTarget;
     }
 
     /**
-     * Moves cursor to specific grid position using ANSI escape codes.
-     * @param x X coordinate (0-based)
-     * @param y Y coordinate (0-based)
+     * Forget what the terminal shows, so the next frame is painted in full
+     * (first frame, or after something else drew over the grid).
      */
-    public static void moveCursor(int x, int y) {
-        // ANSI escape code: \033[row;colH
-        // Note: ANSI uses 1-based indexing, so we add 1
-        System.out.print(String.format("\033[%d;%dH", y + 1, x + 1));
+    public void invalidateFrame() {
+        frameBuffer.invalidate();
+    }
+
+    /**
+     * Jump the camera without scrolling (level start, teleport).
+     * Pair with invalidateFrame() if the screen content is stale.
+     */
+    public void setViewOffset(int offsetX, int offsetY) {
+        viewOffsetX = offsetX;
+        viewOffsetY = offsetY;
+    }
+
+    /**
+     * Move the camera to a new world offset. Must be called right after
+     * beginFrame(), before anything else is drawn.
+     *
+     * Vertical moves smaller than the grid are done by the terminal itself:
+     * set the scroll region to the grid rows, scroll N lines, reset region.
+     * Only the newly exposed rows then need to be painted.
+     * Horizontal moves have no portable escape, so the diff repaints them.
+     *
+     * @return true if the terminal scrolled (text next to the grid, like
+     *         the HUD, moved with it and must be redrawn)
+     */
+    public boolean scrollView(int offsetX, int offsetY) {
+        int dx = offsetX - viewOffsetX;
+        int dy = offsetY - viewOffsetY;
+        viewOffsetX = offsetX;
+        viewOffsetY = offsetY;
+
+        if (dy == 0 || dx != 0 || Math.abs(dy) >= height) {
+            return false;
+        }
+
+        renderBuffer.putByte((byte) 0x1B);
+        renderBuffer.putByte((byte) '[');
+        renderBuffer.putInt(1);
+        renderBuffer.putByte((byte) ';');
+        renderBuffer.putInt(height);
+        renderBuffer.putByte((byte) 'r');
+
+        // CSI n S scrolls content up (camera moved down), CSI n T scrolls down
+        renderBuffer.putByte((byte) 0x1B);
+        renderBuffer.putByte((byte) '[');
+        renderBuffer.putInt(Math.abs(dy));
+        renderBuffer.putByte((byte) (dy > 0 ? 'S' : 'T'));
+
+        renderBuffer.putBytes(RESET_SCROLL_REGION);
+
+        frameBuffer.scrollRows(dy);
+        return true;
+    }
+
+    /**
+     * Paint a cell of the next frame into the back buffer.
+     * Coordinates are WORLD coordinates; cells outside the viewport are ignored.
+     * Nothing is sent until endFrame(), and only if the cell changed.
+     */
+    public void paintCell(char symbol, int worldX, int worldY) {
+        frameBuffer.put(symbol, worldX - viewOffsetX, worldY - viewOffsetY);
+    }
+
+    /**
+     * Paint the visible window of the background tiles into the back buffer.
+     * Row copies of viewport width - cost does not depend on world size.
+     */
+    public void paintBackground(TileRows tiles) {
+        frameBuffer.fill(' ');
+        for (int y = 0; y < height; y++) {
+            int worldY = viewOffsetY + y;
+            if (worldY >= tiles.getHeight()) {
+                break;
+            }
+            int count = tiles.copyRow(worldY, viewOffsetX, rowScratch, 0, width);
+            frameBuffer.putRow(rowScratch, 0, 0, y, count);
+        }
+    }
+
+    /**
+     * Full redraw: clear the screen and write the visible background rows
+     * as pre-encoded bytes (one bulk copy per row). The front buffer is told
+     * what is now on screen, so the next diff only emits the dynamic entities
+     * painted on top.
+     *
+     * Used for the first frame and whenever the screen was disturbed
+     * (e.g. the battle screen printed over the grid).
+     */
+    public void redrawBackground(EncodedRows background) {
+        renderBuffer.putBytes(CLEAR_SCREEN);
+        frameBuffer.markAllShown(' ');
+
+        for (int y = 0; y < height; y++) {
+            int worldY = viewOffsetY + y;
+            if (worldY >= background.getHeight()) {
+                break;
+            }
+            int count = Math.min(width, background.getRowWidth(worldY) - viewOffsetX);
+            if (count <= 0) {
+                continue;
+            }
+            renderBuffer.cursorTo(0, y);
+            background.appendRow(renderBuffer, worldY, viewOffsetX, count);
+            background.copyChars(worldY, viewOffsetX, rowScratch, count);
+            frameBuffer.markShown(rowScratch, 0, 0, y, count);
+        }
+    }
+
+    /**
+     * Week 11: Text drawn as part of the frame (HUD fields, panels)
+     */
+    public void putText(String text, int x, int y) {
+        renderBuffer.cursorTo(x, y);
+        renderBuffer.putText(text);
     }
 
     /**
-     * Week 11: Starts buffering mode - all draw calls are accumulated
+     * A run of chars as part of the frame (no String needed)
      */
-    public static void beginFrame() {
-        bufferingEnabled = true;
-        renderBuffer.setLength(0);  // Clear buffer
+    public void putChars(char[] chars, int count, int x, int y) {
+        renderBuffer.cursorTo(x, y);
+        renderBuffer.putChars(chars, 0, count);
+    }
+
+    /**
+     * Week 11: Starts a frame - all paint/put calls are accumulated
+     */
+    public void beginFrame() {
+        renderBuffer.reset();  // Clear buffer (keeps backing array)
     }
 
     /**
@@ -60,24 +234,76 @@ public class GridRenderer {
      * 2. Position cursor at row 27, col 1 (below the 25-row map)
      * 3. Windows console echoes input at cursor position, so this ensures
      *    echo appears below visible game area
-     * 4. Combined with 3x3 player area redraw (GameEngine.java), this
-     *    fully solves the input echo problem
+     * 4. Echo lands below the grid, so the diff renderer never has to repair it
      */
-    public static void endFrame() {
-        if (bufferingEnabled && renderBuffer.length() > 0) {
+    public void endFrame() {
+        // Only the cells that differ from what the terminal shows
+        frameBuffer.present(renderBuffer, 0, 0);
+
+        if (renderBuffer.size() > 0) {
             // Week 11-01: Hide cursor to prevent it from being visible on screen
-            renderBuffer.append("\033[?25l");  // Hide cursor
+            renderBuffer.putBytes(HIDE_CURSOR);  // Hide cursor
 
             // Week 11-01: INPUT ECHO SOLUTION - Move cursor below map
             // Row 27 is 2 rows below the 25-row map, stays within terminal bounds
             // Windows console echoes WASD input at cursor position, so this redirects
             // echo to invisible area below the game
-            renderBuffer.append("\033[27;1H");
+            renderBuffer.cursorTo(0, 26);
 
-            System.out.print(renderBuffer.toString());
-            System.out.flush();
+            // One write for the whole frame
+            frameTarget.write(renderBuffer.array(), 0, renderBuffer.size());
         }
-        bufferingEnabled = false;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Immediate mode (static): written to the target right away
+    // ═══════════════════════════════════════════════════════════════
+
+    /**
+     * Clears the terminal screen using ANSI escape codes.
+     * This moves cursor to home and clears the entire screen.
+     * Only used for initial setup.
+     */
+    public static void clearScreen() {
+        // ANSI escape codes for clearing screen
+        // \033[H - Move cursor to home (0,0)
+        // \033[2J - Clear entire screen
+        AnsiEncoder out = output();
+        out.putBytes(CLEAR_SCREEN);
+        flushDirect();
+    }
+
+    /**
+     * Show or hide the terminal cursor (hidden while the game runs)
+     */
+    public static void setCursorVisible(boolean visible) {
+        AnsiEncoder out = output();
+        out.putBytes(visible ? SHOW_CURSOR : HIDE_CURSOR);
+        flushDirect();
+    }
+
+    /**
+     * Select where immediate output goes (terminal or headless)
+     */
+    public static void setRenderTarget(RenderTarget renderTarget) {
+        target = renderTarget;
+    }
+
+    public static RenderTarget getRenderTarget() {
+        return target;
+    }
+
+    /**
+     * Moves cursor to specific grid position using ANSI escape codes.
+     * @param x X coordinate (0-based)
+     * @param y Y coordinate (0-based)
+     */
+    public static void moveCursor(int x, int y) {
+        // ANSI escape code: \033[row;colH
+        // Note: ANSI uses 1-based indexing (AnsiEncoder adds 1)
+        AnsiEncoder out = output();
+        out.cursorTo(x, y);
+        flushDirect();
     }
 
     /**
@@ -87,14 +313,10 @@ public class GridRenderer {
      */
     public static void clearCell(int x, int y) {
         if (x >= 0 && x < cachedWidth && y >= 0 && y < cachedHeight) {
-            if (bufferingEnabled) {
-                renderBuffer.append(String.format("\033[%d;%dH", y + 1, x + 1));
-                renderBuffer.append(EMPTY_CELL);
-            } else {
-                moveCursor(x, y);
-                System.out.print(EMPTY_CELL);
-                System.out.flush();
-            }
+            AnsiEncoder out = output();
+            out.cursorTo(x, y);
+            out.putChar(EMPTY_CELL);
+            flushDirect();
         }
     }
 
@@ -106,15 +328,11 @@ public class GridRenderer {
      */
     public static void drawCell(char symbol, int x, int y) {
         if (x >= 0 && x < cachedWidth && y >= 0 && y < cachedHeight) {
-            if (bufferingEnabled) {
-                // Week 11: Buffer the output instead of immediate flush
-                renderBuffer.append(String.format("\033[%d;%dH", y + 1, x + 1));
-                renderBuffer.append(symbol);
-            } else {
-                moveCursor(x, y);
-                System.out.print(symbol);
-                System.out.flush();
-            }
+            // Week 11: Buffer the output instead of immediate flush
+            AnsiEncoder out = output();
+            out.cursorTo(x, y);
+            out.putChar(symbol);
+            flushDirect();
         }
     }
 
@@ -123,22 +341,28 @@ public class GridRenderer {
      * @param offsetY How many lines below the grid
      */
     public static void moveCursorBelowGrid(int offsetY) {
-        System.out.print(String.format("\033[%d;1H", cachedHeight + offsetY + 1));
+        moveCursor(0, cachedHeight + offsetY);
     }
 
     /**
-     * Week 11: Append text to buffer at specific position
-     * Used by HUD to integrate with buffering system
+     * Text at a specific position, written right away
+     * (e.g. PerformanceMonitor warnings)
      */
     public static void drawText(String text, int x, int y) {
-        if (bufferingEnabled) {
-            renderBuffer.append(String.format("\033[%d;%dH", y + 1, x + 1));
-            renderBuffer.append(text);
-        } else {
-            System.out.print(String.format("\033[%d;%dH", y + 1, x + 1));
-            System.out.print(text);
-            System.out.flush();
-        }
+        AnsiEncoder out = output();
+        out.cursorTo(x, y);
+        out.putText(text);
+        flushDirect();
+    }
+
+    /**
+     * A run of chars at a specific position (no String needed)
+     */
+    public static void drawChars(char[] chars, int count, int x, int y) {
+        AnsiEncoder out = output();
+        out.cursorTo(x, y);
+        out.putChars(chars, 0, count);
+        flushDirect();
     }
 
     /**
@@ -148,27 +372,37 @@ public class GridRenderer {
      * @param row Row position for notification
      */
     public static void drawNotification(String notification, int row) {
-        if (bufferingEnabled) {
-            // Clear notification line first
-            renderBuffer.append(String.format("\033[%d;1H", row));
-            renderBuffer.append("                                                                  ");  // Clear line
-            // Draw notification at same position
-            renderBuffer.append(String.format("\033[%d;1H", row));
-            renderBuffer.append(notification);
-        } else {
-            // Clear notification line first
-            System.out.print(String.format("\033[%d;1H", row));
-            System.out.print("                                                                  ");  // Clear line
-            // Draw notification at same position
-            System.out.print(String.format("\033[%d;1H", row));
-            System.out.print(notification);
-            System.out.flush();
-        }
+        // row is 1-based here (matches the original "\033[row;1H" usage)
+        AnsiEncoder out = output();
+        // Clear notification line first
+        out.cursorTo(0, row - 1);
+        out.putBytes(NOTIFICATION_CLEAR);  // Clear line
+        // Draw notification at same position
+        out.cursorTo(0, row - 1);
+        out.putText(notification);
+        flushDirect();
+    }
+
+    /**
+     * Immediate calls share one scratch encoder
+     */
+    private static AnsiEncoder output() {
+        directBuffer.reset();
+        return directBuffer;
+    }
+
+    /**
+     * Push the scratch encoder out right away.
+     */
+    private static void flushDirect() {
+        target.write(directBuffer.array(), 0, directBuffer.size());
     }
 
     /**
      * Draws the entire grid with entities at their positions.
-     * @param entities Array of entity characters and their positions
+     * Encoded into one buffer and written with a single call
+     * (used to be one System.out.print per character).
+     * @param grid Grid of characters to draw
      */
     public static void drawGrid(char[][] grid) {
         // Update cached dimensions from grid array
@@ -177,12 +411,12 @@ public class GridRenderer {
             cachedWidth = grid[0].length;
         }
 
+        directBuffer.reset();
         for (int y = 0; y < cachedHeight; y++) {
-            for (int x = 0; x < cachedWidth; x++) {
-                System.out.print(grid[y][x]);
-            }
-            System.out.println();
+            directBuffer.putChars(grid[y], 0, cachedWidth);
+            directBuffer.putBytes(LINE_SEPARATOR);
         }
+        target.write(directBuffer.array(), 0, directBuffer.size());
     }
 
     /**
@@ -0,0 +1,36 @@
+package utils;
+
+/**
+ * HeadlessRenderTarget - Rendering disabled, output only counted
+ *
+ * Used for simulation throughput runs and benchmarks: frames are still
+ * encoded (so encoder cost is measured), but nothing touches the terminal.
+ * The counters report what a real terminal would have received.
+ */
+public class HeadlessRenderTarget implements RenderTarget {
+    private long bytesWritten = 0;
+    private long writeCount = 0;
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        bytesWritten += length;
+        writeCount++;
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return false;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * @return Number of write calls a terminal would have seen
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+}
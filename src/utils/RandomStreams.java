@@ -0,0 +1,98 @@
+package utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * RandomStreams - All randomness of one game session, from one seed
+ *
+ * Every subsystem asks for its own named stream ("spawn-position",
+ * "battle", ...). A stream's seed is derived from the session seed and
+ * its NAME only, so:
+ * - The same seed (plus the same inputs) replays the same game
+ * - Adding a new consumer, or one subsystem drawing more numbers,
+ *   never shifts the sequence another subsystem sees
+ *
+ * Asking twice for the same name returns the same stream.
+ */
+public class RandomStreams {
+    private long seed;
+    private final Map<String, SeededRandom> streams = new LinkedHashMap<>();
+
+    public RandomStreams(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Session with an unpredictable seed (use getSeed() to reproduce it later)
+     */
+    public static RandomStreams unseeded() {
+        return new RandomStreams(SeededRandom.mix64(System.nanoTime()));
+    }
+
+    public SeededRandom stream(String name) {
+        SeededRandom stream = streams.get(name);
+        if (stream == null) {
+            stream = new SeededRandom(deriveSeed(seed, name));
+            streams.put(name, stream);
+        }
+        return stream;
+    }
+
+    /**
+     * Restart every stream handed out so far from a new session seed
+     */
+    public void reseed(long seed) {
+        this.seed = seed;
+        for (Map.Entry<String, SeededRandom> entry : streams.entrySet()) {
+            entry.getValue().setSeed(deriveSeed(seed, entry.getKey()));
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    /**
+     * Write the seed and the position of every stream (keyframes, rewind)
+     */
+    public void saveState(ByteBuffer out) {
+        out.putLong(seed);
+        out.putInt(streams.size());
+        for (Map.Entry<String, SeededRandom> entry : streams.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            out.putShort((short) name.length);
+            out.put(name);
+            out.putLong(entry.getValue().getState());
+        }
+    }
+
+    /**
+     * Put every saved stream back where it was (streams are matched by name)
+     */
+    public void loadState(ByteBuffer in) {
+        seed = in.getLong();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[in.getShort()];
+            in.get(name);
+            stream(new String(name, StandardCharsets.UTF_8)).setState(in.getLong());
+        }
+    }
+
+    private static long deriveSeed(long seed, String name) {
+        // FNV-1a over the name, then mixed with the session seed
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return SeededRandom.mix64(seed ^ SeededRandom.mix64(hash));
+    }
+}
@@ -0,0 +1,59 @@
+package utils;
+
+/**
+ * RenderTarget - Where encoded frames end up
+ *
+ * GridRenderer encodes everything (cells, HUD text, escapes) into bytes
+ * and hands them to a RenderTarget. Swapping the target lets the same
+ * game run against a real terminal or with rendering disabled.
+ *
+ * Implementations:
+ * - StdoutSink: the ANSI terminal (fd 1)
+ * - HeadlessRenderTarget: discards output, only counts it
+ * - AsyncFrameWriter: writes through another target on its own thread
+ */
+public interface RenderTarget {
+    /**
+     * Deliver encoded bytes (usually one whole frame)
+     */
+    void write(byte[] bytes, int offset, int length);
+
+    /**
+     * Is a human watching? Non-interactive targets let the engine skip
+     * frame pacing and run the simulation as fast as possible.
+     */
+    boolean isInteractive();
+
+    /**
+     * @return Total bytes delivered (or that would have been delivered)
+     */
+    long getBytesWritten();
+
+    /**
+     * Can the target take a new frame right now? Renderers skip encoding
+     * a frame while this is false; the next frame's diff then covers both.
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Called by the renderer for every frame it skipped because of isReady()
+     */
+    default void onFrameDropped() {
+    }
+
+    /**
+     * @return Frames skipped because the target was not ready
+     */
+    default long getDroppedFrames() {
+        return 0;
+    }
+
+    /**
+     * Block until everything written so far has reached its destination
+     * (before printing to System.out directly)
+     */
+    default void flush() {
+    }
+}
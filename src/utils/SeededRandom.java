@@ -0,0 +1,64 @@
+package utils;
+
+import java.util.Random;
+
+/**
+ * SeededRandom - Small, reproducible java.util.Random replacement
+ *
+ * SplitMix64 generator: the whole state is one long, so it can be read
+ * and restored (replays, rewinds) with getState()/setState(). Being a
+ * java.util.Random subclass, it can be passed to any existing code that
+ * takes a Random (e.g. BossState.chooseAction).
+ *
+ * Not thread-safe - each subsystem owns its own stream (see RandomStreams).
+ */
+public class SeededRandom extends Random {
+    private static final long serialVersionUID = 1L;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Deliberately no initializer: Random's constructor calls setSeed() first
+    private long state;
+
+    public SeededRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        super.setSeed(seed);  // Clears Random's cached nextGaussian
+        this.state = seed;
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (nextRaw() >>> (64 - bits));
+    }
+
+    @Override
+    public long nextLong() {
+        return nextRaw();
+    }
+
+    public long getState() {
+        return state;
+    }
+
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    private long nextRaw() {
+        state += GOLDEN_GAMMA;
+        return mix64(state);
+    }
+
+    /**
+     * SplitMix64 finalizer - also used to derive independent seeds
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
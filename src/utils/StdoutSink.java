@@ -0,0 +1,88 @@
+package utils;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * StdoutSink - Writes whole frames to stdout with a single channel write
+ *
+ * System.out.print(String) goes through the synchronized PrintStream,
+ * charset encoding and a fresh String every frame. Frames are already
+ * encoded to bytes by AnsiEncoder, so this sink just copies them into a
+ * reusable direct ByteBuffer and hands them to a FileChannel on fd 1.
+ *
+ * Ordering: anything still sitting in System.out's buffer is flushed first,
+ * so println() output and frames never interleave out of order.
+ *
+ * This is the ANSI terminal RenderTarget.
+ */
+public final class StdoutSink implements RenderTarget {
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    // Kept referenced for the lifetime of the sink (never closed - it is fd 1)
+    private final FileOutputStream stdout;
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+
+    // Falls back to System.out if the channel ever fails (e.g. fd 1 closed/redirected oddly)
+    private boolean channelBroken = false;
+
+    private long bytesWritten = 0;
+
+    public StdoutSink() {
+        this.stdout = new FileOutputStream(FileDescriptor.out);
+        this.channel = stdout.getChannel();
+        this.buffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) {
+        if (length <= 0) {
+            return;
+        }
+        bytesWritten += length;
+
+        System.out.flush();
+
+        if (channelBroken) {
+            System.out.write(bytes, offset, length);
+            System.out.flush();
+            return;
+        }
+
+        ensureCapacity(length);
+        buffer.clear();
+        buffer.put(bytes, offset, length);
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            channelBroken = true;
+            System.out.write(bytes, offset + buffer.position(), length - buffer.position());
+            System.out.flush();
+        }
+    }
+
+    @Override
+    public boolean isInteractive() {
+        return true;
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer.capacity() < length) {
+            // Grows rarely (only when a frame is bigger than any before it)
+            buffer = ByteBuffer.allocateDirect(Math.max(length, buffer.capacity() * 2));
+        }
+    }
+}
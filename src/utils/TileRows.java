@@ -0,0 +1,19 @@
+package utils;
+
+/**
+ * TileRows - Read access to a static tile grid, row by row
+ *
+ * What the renderer needs from a map (world.TileStore implements it),
+ * without utils depending on the world package.
+ */
+public interface TileRows {
+    int getWidth();
+
+    int getHeight();
+
+    /**
+     * Copy count tiles of row y starting at fromX into dst (clipped to the grid)
+     * @return Number of tiles copied
+     */
+    int copyRow(int y, int fromX, char[] dst, int dstOffset, int count);
+}
@@ -0,0 +1,76 @@
+package utils;
+
+/**
+ * Viewport - Camera window onto a world that can be larger than the terminal
+ *
+ * The renderer only ever touches viewWidth x viewHeight cells, so render
+ * cost stays the same for a 25x25 dungeon or a 500x500 world.
+ *
+ * Follow policy (dead zone):
+ * - The camera stays still while the target is at least MARGIN cells from
+ *   the window edge
+ * - When the target gets closer, the camera shifts just enough to keep the
+ *   margin (usually 1 row/column per step -> cheap terminal scroll)
+ * - The window never leaves the world bounds
+ */
+public class Viewport {
+    private static final int MARGIN = 5;
+
+    private final int viewWidth;
+    private final int viewHeight;
+    private int offsetX = 0;
+    private int offsetY = 0;
+
+    public Viewport(int viewWidth, int viewHeight) {
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+    }
+
+    /**
+     * Move the window so the target stays inside the dead zone.
+     *
+     * @param targetX Target world X (usually the player)
+     * @param targetY Target world Y
+     * @param worldWidth Width of the world in cells
+     * @param worldHeight Height of the world in cells
+     */
+    public void follow(int targetX, int targetY, int worldWidth, int worldHeight) {
+        offsetX = followAxis(offsetX, targetX, viewWidth, worldWidth);
+        offsetY = followAxis(offsetY, targetY, viewHeight, worldHeight);
+    }
+
+    /**
+     * Center the window on the target (used on level start / teleport)
+     */
+    public void centerOn(int targetX, int targetY, int worldWidth, int worldHeight) {
+        offsetX = clamp(targetX - viewWidth / 2, worldWidth - viewWidth);
+        offsetY = clamp(targetY - viewHeight / 2, worldHeight - viewHeight);
+    }
+
+    private static int followAxis(int offset, int target, int view, int world) {
+        int margin = Math.min(MARGIN, (view - 1) / 2);
+        if (target < offset + margin) {
+            offset = target - margin;
+        } else if (target > offset + view - 1 - margin) {
+            offset = target - (view - 1 - margin);
+        }
+        return clamp(offset, world - view);
+    }
+
+    private static int clamp(int offset, int maxOffset) {
+        if (offset > maxOffset) {
+            offset = maxOffset;
+        }
+        return Math.max(0, offset);
+    }
+
+    public boolean contains(int worldX, int worldY) {
+        return worldX >= offsetX && worldX < offsetX + viewWidth
+            && worldY >= offsetY && worldY < offsetY + viewHeight;
+    }
+
+    public int getOffsetX() { return offsetX; }
+    public int getOffsetY() { return offsetY; }
+    public int getViewWidth() { return viewWidth; }
+    public int getViewHeight() { return viewHeight; }
+}
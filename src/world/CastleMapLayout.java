@@ -79,16 +79,4 @@ public class CastleMapLayout extends GameMap {
     public char getSpikeChar() {
         return 'X';  // Sword trap
     }
-
-    /**
-     * Override isWalkable to handle both wall types (| and -)
-     */
-    @Override
-    public boolean isWalkable(int x, int y) {
-        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
-            return false;
-        }
-        char tile = getLayout()[y][x];
-        return tile == getFloorChar();  // Only ':' is walkable
-    }
 }
@@ -14,12 +14,18 @@ package world;
  * - All other code continues using DungeonMap.isWalkable() etc.
  */
 public class DungeonMap {
-    private static final int WIDTH = 25;
-    private static final int HEIGHT = 25;
-
     // Week 13: Active map instance (default to Dungeon)
     private static GameMap activeMap = new DungeonMapLayout();
 
+    // Compiled tiles of activeMap - the hot queries below skip the virtual calls
+    private static TileIndex activeTiles = activeMap.getTileIndex();
+
+    // Bumped whenever the map changes; anything cached per map (paths) checks it
+    private static int mapVersion = 0;
+
+    // Routes over the active map (created on first use)
+    private static PathService pathService;
+
     /**
      * Set the active map layout
      * Called by LevelLoader subclasses during level loading
@@ -28,10 +34,36 @@ public class DungeonMap {
      */
     public static void setActiveMap(GameMap map) {
         activeMap = map;
+        map.encodeBackground();
+        map.compileTiles();
+        activeTiles = map.getTileIndex();
+        mapVersion++;
         System.out.println("  [Map] Loaded: " + map.getLevelName());
         System.out.println("  [Music] " + map.getMusic());
     }
 
+    /**
+     * Call after changing tiles of the active map in place: recompiles its
+     * TileIndex and invalidates everything cached for the old layout
+     */
+    public static void notifyTilesChanged() {
+        activeMap.encodeBackground();
+        activeMap.compileTiles();
+        activeTiles = activeMap.getTileIndex();
+        mapVersion++;
+    }
+
+    public static int getMapVersion() {
+        return mapVersion;
+    }
+
+    public static PathService getPathService() {
+        if (pathService == null) {
+            pathService = new PathService();
+        }
+        return pathService;
+    }
+
     /**
      * Get the current active map
      * @return The active GameMap instance
@@ -42,10 +74,21 @@ public class DungeonMap {
 
     /**
      * Check if a position is walkable (not a wall)
-     * Delegates to active map
+     * Answered from the compiled TileIndex of the active map
      */
     public static boolean isWalkable(int x, int y) {
-        return activeMap.isWalkable(x, y);
+        return activeTiles.isWalkable(x, y);
+    }
+
+    /**
+     * TileIndex flags (WALL, FLOOR, BORDER, HAZARD) at a position
+     */
+    public static byte getTileFlags(int x, int y) {
+        return activeTiles.getFlags(x, y);
+    }
+
+    public static TileIndex getTileIndex() {
+        return activeTiles;
     }
 
     /**
@@ -56,12 +99,15 @@ public class DungeonMap {
         return activeMap.getTile(x, y);
     }
 
+    /**
+     * World size of the active map (can be larger than the screen)
+     */
     public static int getWidth() {
-        return WIDTH;
+        return activeTiles.getWidth();
     }
 
     public static int getHeight() {
-        return HEIGHT;
+        return activeTiles.getHeight();
     }
 
     /**
@@ -0,0 +1,152 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * FieldOfView - Which tiles the player can see from where they stand
+ *
+ * Recursive shadowcasting: each of the 8 octants around the viewer is
+ * scanned row by row, moving outwards; a wall casts a shadow (a range of
+ * slopes) that hides everything behind it in the rows further out. Every
+ * tile within RADIUS is looked at once, so no per-tile ray tests.
+ *
+ * - Recomputed only when the viewer moves to another tile or the map
+ *   changes (same rule as FlowField); every other query is one bit read
+ * - Bounded to a (2 * RADIUS + 1)^2 window, whatever the world size
+ * - Walls block sight but are visible themselves; hazards don't block
+ *
+ * Users: wolves (can they see the player?) and, through WorldSnapshot,
+ * the fog of war in FrameRenderer.
+ */
+public final class FieldOfView {
+    public static final int RADIUS = 8;
+    public static final int SIZE = 2 * RADIUS + 1;
+    // Longs needed for one visibility bit per window tile
+    public static final int WORDS = (SIZE * SIZE + 63) / 64;
+
+    // Octant transforms: (xx, xy, yx, yy)
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    private final long[] visible = new long[WORDS];
+
+    private int viewerX = Integer.MIN_VALUE;
+    private int viewerY = Integer.MIN_VALUE;
+    private TileIndex builtFor;
+    private int version = 0;
+
+    /**
+     * Move the viewer; recomputes only if the tile or the map changed
+     * @return true if the visible set was recomputed
+     */
+    public boolean update(int x, int y) {
+        TileIndex tiles = DungeonMap.getTileIndex();
+        if (x == viewerX && y == viewerY && tiles == builtFor) {
+            return false;
+        }
+        viewerX = x;
+        viewerY = y;
+        builtFor = tiles;
+        Arrays.fill(visible, 0L);
+        mark(x, y);
+        for (int[] octant : OCTANTS) {
+            castLight(tiles, 1, 1.0f, 0.0f, octant[0], octant[1], octant[2], octant[3]);
+        }
+        version++;
+        return true;
+    }
+
+    public boolean isVisible(int x, int y) {
+        return isVisible(visible, viewerX - RADIUS, viewerY - RADIUS, x, y);
+    }
+
+    /**
+     * Visibility from a copy made with copyTo() (renderer side)
+     */
+    public static boolean isVisible(long[] bits, int originX, int originY, int x, int y) {
+        int wx = x - originX;
+        int wy = y - originY;
+        if (wx < 0 || wy < 0 || wx >= SIZE || wy >= SIZE) {
+            return false;
+        }
+        int bit = wy * SIZE + wx;
+        return (bits[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Copy the visible bits (WORDS longs); window origin is
+     * (getViewerX() - RADIUS, getViewerY() - RADIUS)
+     */
+    public void copyTo(long[] bits) {
+        System.arraycopy(visible, 0, bits, 0, WORDS);
+    }
+
+    public int getViewerX() {
+        return viewerX;
+    }
+
+    public int getViewerY() {
+        return viewerY;
+    }
+
+    /**
+     * Changes every time the visible set is recomputed
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Scan one octant from 'row' outwards between two slopes
+     * (1 = diagonal, 0 = straight out); recurses past each wall run
+     */
+    private void castLight(TileIndex tiles, int row, float start, float end, int xx, int xy, int yx, int yy) {
+        if (start < end) {
+            return;
+        }
+        float newStart = 0.0f;
+        for (int distance = row; distance <= RADIUS; distance++) {
+            int dy = -distance;
+            boolean blocked = false;
+            for (int dx = -distance; dx <= 0; dx++) {
+                float leftSlope = (dx - 0.5f) / (dy + 0.5f);
+                float rightSlope = (dx + 0.5f) / (dy - 0.5f);
+                if (start < rightSlope) {
+                    continue;
+                } else if (end > leftSlope) {
+                    break;
+                }
+
+                int x = viewerX + dx * xx + dy * xy;
+                int y = viewerY + dx * yx + dy * yy;
+                if (dx * dx + dy * dy <= RADIUS * RADIUS) {
+                    mark(x, y);
+                }
+
+                boolean opaque = tiles.hasFlag(x, y, TileIndex.WALL);
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && distance < RADIUS) {
+                    blocked = true;
+                    castLight(tiles, distance + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) {
+                return;
+            }
+        }
+    }
+
+    private void mark(int x, int y) {
+        int bit = (y - viewerY + RADIUS) * SIZE + (x - viewerX + RADIUS);
+        visible[bit >>> 6] |= 1L << bit;
+    }
+}
@@ -0,0 +1,158 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * FlowField - Shared "which way to the player" map for chasing obstacles
+ *
+ * Each wolf used to steer in a straight line towards the player and got
+ * stuck on the first wall in between. Instead, one breadth-first search
+ * from the player's tile over walkable tiles gives every tile around the
+ * player its path distance, and from that the one step that gets closer.
+ *
+ * - Rebuilt only when the player moves to another tile (or the map changes)
+ * - Any number of wolves then read their next step in O(1)
+ * - Bounded to RADIUS tiles around the player, so the cost is the same
+ *   on a 25x25 level and on a 4096x4096 world
+ */
+public final class FlowField {
+    // Wolves only chase within a few tiles; this leaves room for detours
+    public static final int RADIUS = 16;
+
+    public static final byte NONE = 0;
+    public static final byte RIGHT = 1;
+    public static final byte LEFT = 2;
+    public static final byte DOWN = 3;
+    public static final byte UP = 4;
+
+    private static final int SIZE = 2 * RADIUS + 1;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private static final int[] DX = {0, 1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 0, 1, -1};
+
+    private final int[] distance = new int[SIZE * SIZE];
+    private final byte[] direction = new byte[SIZE * SIZE];
+    private final int[] queue = new int[SIZE * SIZE];
+
+    // Window origin (world coordinates of window cell 0,0) and what it was built for
+    private int originX;
+    private int originY;
+    private int targetX = Integer.MIN_VALUE;
+    private int targetY = Integer.MIN_VALUE;
+    private TileIndex builtFor;
+    private int rebuilds = 0;
+
+    /**
+     * Point the field at a target tile; rebuilds only if something changed
+     */
+    public void update(int x, int y) {
+        TileIndex tiles = DungeonMap.getTileIndex();
+        if (x == targetX && y == targetY && tiles == builtFor) {
+            return;
+        }
+        targetX = x;
+        targetY = y;
+        builtFor = tiles;
+        originX = x - RADIUS;
+        originY = y - RADIUS;
+        rebuild(tiles);
+    }
+
+    /**
+     * Next step from (x, y) towards the target: RIGHT, LEFT, DOWN, UP,
+     * or NONE if already there, unreachable, or outside the field
+     */
+    public byte directionAt(int x, int y) {
+        int cx = x - originX;
+        int cy = y - originY;
+        if (cx < 0 || cy < 0 || cx >= SIZE || cy >= SIZE) {
+            return NONE;
+        }
+        return direction[cy * SIZE + cx];
+    }
+
+    /**
+     * Path length from (x, y) to the target in steps, or -1 if unreachable
+     */
+    public int distanceAt(int x, int y) {
+        int cx = x - originX;
+        int cy = y - originY;
+        if (cx < 0 || cy < 0 || cx >= SIZE || cy >= SIZE) {
+            return -1;
+        }
+        int d = distance[cy * SIZE + cx];
+        return d == UNREACHED ? -1 : d;
+    }
+
+    public static int stepX(byte direction) {
+        return DX[direction];
+    }
+
+    public static int stepY(byte direction) {
+        return DY[direction];
+    }
+
+    /**
+     * How often the field was recomputed (once per player tile change)
+     */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    private void rebuild(TileIndex tiles) {
+        rebuilds++;
+        Arrays.fill(distance, UNREACHED);
+        Arrays.fill(direction, NONE);
+
+        int start = RADIUS * SIZE + RADIUS;
+        distance[start] = 0;
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int cell = queue[head++];
+            int cx = cell % SIZE;
+            int cy = cell / SIZE;
+            int next = distance[cell] + 1;
+            for (int d = 1; d <= 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (nx < 0 || ny < 0 || nx >= SIZE || ny >= SIZE) {
+                    continue;
+                }
+                int neighbor = ny * SIZE + nx;
+                if (distance[neighbor] == UNREACHED && tiles.isWalkable(originX + nx, originY + ny)) {
+                    distance[neighbor] = next;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+
+        // Downhill direction per tile. Of two equally short steps, take the one
+        // along the longer axis to the target - paths look like the old straight chase
+        for (int cell = 0; cell < distance.length; cell++) {
+            int d = distance[cell];
+            if (d == UNREACHED || d == 0) {
+                continue;
+            }
+            int cx = cell % SIZE;
+            int cy = cell / SIZE;
+            boolean preferX = Math.abs(RADIUS - cx) >= Math.abs(RADIUS - cy);
+            byte best = NONE;
+            for (int i = 1; i <= 4; i++) {
+                // Visit x moves first when preferX, else y moves first
+                int dir = preferX ? i : (i + 1) % 4 + 1;
+                int nx = cx + DX[dir];
+                int ny = cy + DY[dir];
+                if (nx < 0 || ny < 0 || nx >= SIZE || ny >= SIZE) {
+                    continue;
+                }
+                if (distance[ny * SIZE + nx] == d - 1) {
+                    best = (byte) dir;
+                    break;
+                }
+            }
+            direction[cell] = best;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package world;
 
+import utils.EncodedRows;
+
 /**
  * Week 13: Abstract GameMap for different level layouts
  *
@@ -10,16 +12,46 @@ package world;
  *
  * This demonstrates polymorphism without changing all 20+ files
  * that currently use DungeonMap's static methods.
+ *
+ * Tiles live in a TileStore (chunked, palette-packed), so a map can be
+ * far bigger than the screen. Hand-made levels override getLayout();
+ * generated worlds override createTiles() and never build a char[][].
  */
 public abstract class GameMap {
-    protected static final int WIDTH = 25;
-    protected static final int HEIGHT = 25;
+
+    // Performance: layout pre-encoded to terminal bytes for full redraws
+    private EncodedRows encodedBackground;
+
+    // Performance: walkability bitset + tile flags (see TileIndex)
+    private TileIndex tileIndex;
+
+    // The tiles themselves (built on first use from createTiles())
+    private TileStore tiles;
 
     /**
-     * Get the map layout (25x25 grid)
+     * Get the map layout as a char grid (the built-in levels are 25x25).
+     * Subclasses override this or createTiles(); the default expands the
+     * TileStore, which is only sensible for small maps.
      * @return 2D char array representing the map
      */
-    public abstract char[][] getLayout();
+    public char[][] getLayout() {
+        return getMapCopy();
+    }
+
+    /**
+     * Build the tiles of this map. Default: pack getLayout().
+     * Large or generated worlds override this to fill a TileStore directly.
+     */
+    protected TileStore createTiles() {
+        return TileStore.fromLayout(getLayout());
+    }
+
+    public TileStore getTiles() {
+        if (tiles == null) {
+            tiles = createTiles();
+        }
+        return tiles;
+    }
 
     /**
      * Get the wall character for this map
@@ -64,45 +96,71 @@ public abstract class GameMap {
     public abstract char getSpikeChar();
 
     /**
-     * Check if a position is walkable
+     * Check if a position is walkable (only the floor character is)
      */
     public boolean isWalkable(int x, int y) {
-        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
-            return false;
-        }
-        char[][] layout = getLayout();
-        return layout[y][x] == getFloorChar();
+        return getTileIndex().isWalkable(x, y);
     }
 
     /**
      * Get tile at position
      */
     public char getTile(int x, int y) {
-        if (x < 0 || x >= WIDTH || y < 0 || y >= HEIGHT) {
+        if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight()) {
             return getWallChar();
         }
-        return getLayout()[y][x];
+        return getTiles().get(x, y);
     }
 
     /**
      * Get a copy of the map for rendering
      */
     public char[][] getMapCopy() {
-        char[][] layout = getLayout();
-        char[][] copy = new char[HEIGHT][WIDTH];
-        for (int y = 0; y < HEIGHT; y++) {
-            for (int x = 0; x < WIDTH; x++) {
-                copy[y][x] = layout[y][x];
-            }
+        TileStore store = getTiles();
+        char[][] copy = new char[store.getHeight()][store.getWidth()];
+        for (int y = 0; y < copy.length; y++) {
+            store.copyRow(y, 0, copy[y], 0, copy[y].length);
         }
         return copy;
     }
 
+    /**
+     * Map size comes from the tiles themselves (no more hardcoded 25x25)
+     */
     public int getWidth() {
-        return WIDTH;
+        return getTiles().getWidth();
     }
 
     public int getHeight() {
-        return HEIGHT;
+        return getTiles().getHeight();
+    }
+
+    /**
+     * Prepare background encoding (called by DungeonMap.setActiveMap).
+     * Full redraws then write whole rows as bulk byte copies.
+     */
+    public void encodeBackground() {
+        encodedBackground = new EncodedRows(getTiles());
+    }
+
+    /**
+     * Compile the layout into a TileIndex (called by DungeonMap.setActiveMap)
+     */
+    public void compileTiles() {
+        tileIndex = new TileIndex(this);
+    }
+
+    public TileIndex getTileIndex() {
+        if (tileIndex == null) {
+            compileTiles();
+        }
+        return tileIndex;
+    }
+
+    public EncodedRows getEncodedBackground() {
+        if (encodedBackground == null) {
+            encodeBackground();
+        }
+        return encodedBackground;
     }
 }
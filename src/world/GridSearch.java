@@ -0,0 +1,217 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * GridSearch - A* and breadth-first search inside a rectangle of tiles
+ *
+ * All state lives in arrays sized for the largest rectangle and reused;
+ * a generation stamp marks which entries belong to the current search,
+ * so starting a search never clears anything.
+ */
+final class GridSearch {
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, 1, -1};
+
+    private final int capacity;
+    private final int[] stamp;
+    private final int[] cost;
+    private final int[] parent;
+    private long[] heap;
+    private final int[] queue;
+    private int generation = 0;
+
+    // Current rectangle
+    private int x0;
+    private int y0;
+    private int w;
+    private int h;
+
+    GridSearch(int maxWidth, int maxHeight) {
+        this.capacity = maxWidth * maxHeight;
+        this.stamp = new int[capacity];
+        this.cost = new int[capacity];
+        this.parent = new int[capacity];
+        this.heap = new long[capacity];
+        this.queue = new int[capacity];
+    }
+
+    /**
+     * Shortest 4-connected path from start to goal that stays inside the
+     * rectangle [x0, x1) x [y0, y1), or null if there is none
+     */
+    TilePath aStar(TileIndex tiles, int sx, int sy, int gx, int gy, int x0, int y0, int x1, int y1) {
+        begin(x0, y0, x1, y1);
+        int start = cell(sx, sy);
+        int goal = cell(gx, gy);
+        visit(start, 0, -1);
+
+        int size = 0;
+        size = push(size, heuristic(sx, sy, gx, gy), start);
+        while (size > 0) {
+            long top = heap[0];
+            size = pop(size);
+            int current = (int) top;
+            int f = (int) (top >>> 32);
+            int g = cost[current];
+            if (f - heuristic(x(current), y(current), gx, gy) > g) {
+                continue;  // Stale entry - a shorter way here was found later
+            }
+            if (current == goal) {
+                return trace(goal);
+            }
+            int cx = x(current);
+            int cy = y(current);
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!inside(nx, ny) || !tiles.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int next = cell(nx, ny);
+                if (stamp[next] != generation || cost[next] > g + 1) {
+                    visit(next, g + 1, current);
+                    size = push(size, g + 1 + heuristic(nx, ny, gx, gy), next);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Breadth-first distances from (sx, sy) inside the rectangle.
+     * Read them with distanceTo() until the next search.
+     */
+    void distancesFrom(TileIndex tiles, int sx, int sy, int x0, int y0, int x1, int y1) {
+        begin(x0, y0, x1, y1);
+        int start = cell(sx, sy);
+        visit(start, 0, -1);
+        queue[0] = start;
+        int head = 0;
+        int tail = 1;
+        while (head < tail) {
+            int current = queue[head++];
+            int cx = x(current);
+            int cy = y(current);
+            for (int d = 0; d < 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!inside(nx, ny) || !tiles.isWalkable(nx, ny)) {
+                    continue;
+                }
+                int next = cell(nx, ny);
+                if (stamp[next] != generation) {
+                    visit(next, cost[current] + 1, current);
+                    queue[tail++] = next;
+                }
+            }
+        }
+    }
+
+    /**
+     * Distance found by the last distancesFrom(), or -1 if unreachable
+     */
+    int distanceTo(int x, int y) {
+        if (!inside(x, y)) {
+            return -1;
+        }
+        int c = cell(x, y);
+        return stamp[c] == generation ? cost[c] : -1;
+    }
+
+    private void begin(int x0, int y0, int x1, int y1) {
+        if ((x1 - x0) * (y1 - y0) > capacity) {
+            throw new IllegalArgumentException("Search area larger than " + capacity + " tiles");
+        }
+        this.x0 = x0;
+        this.y0 = y0;
+        this.w = x1 - x0;
+        this.h = y1 - y0;
+        if (++generation == 0) {
+            Arrays.fill(stamp, 0);
+            generation = 1;
+        }
+    }
+
+    private void visit(int c, int g, int from) {
+        stamp[c] = generation;
+        cost[c] = g;
+        parent[c] = from;
+    }
+
+    private TilePath trace(int goal) {
+        int length = 0;
+        for (int c = goal; c != -1; c = parent[c]) {
+            length++;
+        }
+        int[] xs = new int[length];
+        int[] ys = new int[length];
+        for (int c = goal, i = length - 1; c != -1; c = parent[c], i--) {
+            xs[i] = x(c);
+            ys[i] = y(c);
+        }
+        return new TilePath(xs, ys);
+    }
+
+    // Binary min-heap of (f << 32 | cell); stale entries are skipped on pop
+    private int push(int size, int f, int c) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        long entry = ((long) f << 32) | c;
+        int i = size++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+        return size;
+    }
+
+    private int pop(int size) {
+        long last = heap[--size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        if (size > 0) {
+            heap[i] = last;
+        }
+        return size;
+    }
+
+    private static int heuristic(int x, int y, int gx, int gy) {
+        return Math.abs(x - gx) + Math.abs(y - gy);
+    }
+
+    private boolean inside(int x, int y) {
+        return x >= x0 && y >= y0 && x < x0 + w && y < y0 + h;
+    }
+
+    private int cell(int x, int y) {
+        return (y - y0) * w + (x - x0);
+    }
+
+    private int x(int c) {
+        return x0 + c % w;
+    }
+
+    private int y(int c) {
+        return y0 + c / w;
+    }
+}
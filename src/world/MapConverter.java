@@ -0,0 +1,45 @@
+package world;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * MapConverter - Writes the built-in layouts as MapFiles
+ *
+ * Usage: java world.MapConverter [output directory]   (default: maps)
+ *
+ * Each file is opened again and compared tile by tile with its layout.
+ */
+public class MapConverter {
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "maps");
+        Files.createDirectories(directory);
+
+        convert(new DungeonMapLayout(), directory.resolve("dungeon.rpgmap"));
+        convert(new ForestMapLayout(), directory.resolve("forest.rpgmap"));
+        convert(new CastleMapLayout(), directory.resolve("castle.rpgmap"));
+        convert(new BossArenaLayout(), directory.resolve("arena.rpgmap"));
+    }
+
+    private static void convert(GameMap map, Path file) throws IOException {
+        MapFile.write(map, file);
+
+        GameMap loaded = MapFile.open(file);
+        int mismatches = 0;
+        for (int y = 0; y < map.getHeight(); y++) {
+            for (int x = 0; x < map.getWidth(); x++) {
+                if (loaded.getTile(x, y) != map.getTile(x, y)) {
+                    mismatches++;
+                }
+            }
+        }
+        if (mismatches > 0 || loaded.getWidth() != map.getWidth() || loaded.getHeight() != map.getHeight()) {
+            throw new IOException(file + " does not match " + map.getLevelName() + " (" + mismatches + " tiles differ)");
+        }
+        System.out.println(String.format("%-18s -> %s (%dx%d, %d bytes)", map.getLevelName(), file,
+            map.getWidth(), map.getHeight(), Files.size(file)));
+    }
+}
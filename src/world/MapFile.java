@@ -0,0 +1,235 @@
+package world;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * MapFile - Binary level format, opened with FileChannel.map
+ *
+ * Layouts compiled in as char[][] literals need a rebuild for every new
+ * level, and big ones bloat class loading. A map file holds the same
+ * information (tiles + the level's characters, name and music) in a form
+ * that is used in place:
+ *
+ *   header     magic "RPGM", version, width, height, chunk bits, bits per tile,
+ *              palette, wall/floor/goblin/wolf/spike chars, level name, music
+ *   directory  one int per chunk (row-major):
+ *              >= 0  index of the chunk's data block
+ *              <  0  ~paletteIndex - the whole chunk is that one tile
+ *   data       packed tile blocks (TileStore layout), starting on a page boundary
+ *
+ * open() reads the header and checks the directory (16K ints for a
+ * 4096x4096 world); tile data is read through the mapping, so chunks are
+ * only paged in by the OS when the player or an obstacle gets near them.
+ * A damaged or truncated file fails in open(), never mid-game.
+ * All numbers are big-endian.
+ */
+public final class MapFile {
+    static final int MAGIC = 0x5250474D;  // "RPGM"
+    static final byte VERSION = 1;
+
+    private static final int PAGE_SIZE = 4096;
+    // Keeps the directory (and every offset into the file) within int range
+    private static final int MAX_SIZE = 1 << 16;
+
+    private MapFile() {
+    }
+
+    /**
+     * Convert any map (e.g. a built-in layout) to a map file
+     */
+    public static void write(GameMap map, Path file) throws IOException {
+        TileStore tiles = map.getTiles();
+        int chunkCount = tiles.getChunkCount();
+        int chunkBytes = tiles.chunkBytes();
+
+        ByteBuffer header = ByteBuffer.allocate(64 + tiles.getPaletteSize() * 2
+            + 3 * (map.getLevelName().length() + map.getMusic().length()));
+        header.putInt(MAGIC);
+        header.put(VERSION);
+        header.putInt(tiles.getWidth());
+        header.putInt(tiles.getHeight());
+        header.put((byte) TileStore.CHUNK_BITS);
+        header.put((byte) tiles.getBitsPerTile());
+        header.putShort((short) tiles.getPaletteSize());
+        for (int i = 0; i < tiles.getPaletteSize(); i++) {
+            header.putChar(tiles.getPaletteChar(i));
+        }
+        header.putChar(map.getWallChar());
+        header.putChar(map.getFloorChar());
+        header.putChar(map.getGoblinChar());
+        header.putChar(map.getWolfChar());
+        header.putChar(map.getSpikeChar());
+        putString(header, map.getLevelName());
+        putString(header, map.getMusic());
+
+        int directoryOffset = header.position() + 8;
+        int dataOffset = alignToPage(directoryOffset + chunkCount * 4);
+        header.putInt(directoryOffset);
+        header.putInt(dataOffset);
+        header.flip();
+
+        ByteBuffer directory = ByteBuffer.allocate(chunkCount * 4);
+        ByteBuffer block = ByteBuffer.allocate(chunkBytes);
+        int[] indices = new int[TileStore.CHUNK_SIZE * TileStore.CHUNK_SIZE];
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header, 0);
+            int blocks = 0;
+            for (int cy = 0; cy < tiles.getChunksY(); cy++) {
+                for (int cx = 0; cx < tiles.getChunksX(); cx++) {
+                    int uniform = readChunk(tiles, cx, cy, indices);
+                    if (uniform >= 0) {
+                        directory.putInt(~uniform);
+                        continue;
+                    }
+                    packChunk(indices, tiles.getBitsPerTile(), block);
+                    channel.write(block, dataOffset + (long) blocks * chunkBytes);
+                    directory.putInt(blocks++);
+                }
+            }
+            directory.flip();
+            channel.write(directory, directoryOffset);
+        }
+    }
+
+    /**
+     * Map a file written by write(). Reads the header and the chunk
+     * directory, not the tile data.
+     *
+     * @throws IOException Not a map file, or a header/directory that doesn't fit the file
+     */
+    public static MappedGameMap open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            return read(file, buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Map file header is truncated: " + file);
+        }
+    }
+
+    private static MappedGameMap read(Path file, MappedByteBuffer buffer) throws IOException {
+        long size = buffer.capacity();
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a map file: " + file);
+        }
+        if (buffer.get() != VERSION) {
+            throw new IOException("Unsupported map file version: " + file);
+        }
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        if (width <= 0 || height <= 0 || width > MAX_SIZE || height > MAX_SIZE) {
+            throw new IOException("Bad world size " + width + "x" + height + ": " + file);
+        }
+        if (buffer.get() != TileStore.CHUNK_BITS) {
+            throw new IOException("Map file uses a different chunk size: " + file);
+        }
+        int bitsPerTile = buffer.get();
+        if (bitsPerTile != 4 && bitsPerTile != 8) {
+            throw new IOException("Bad bits per tile (" + bitsPerTile + "): " + file);
+        }
+        int paletteSize = buffer.getShort() & 0xFFFF;
+        if (paletteSize == 0 || paletteSize > 1 << bitsPerTile) {
+            throw new IOException("Bad palette size (" + paletteSize + "): " + file);
+        }
+        char[] palette = new char[paletteSize];
+        for (int i = 0; i < palette.length; i++) {
+            palette[i] = buffer.getChar();
+        }
+        char wall = buffer.getChar();
+        char floor = buffer.getChar();
+        char goblin = buffer.getChar();
+        char wolf = buffer.getChar();
+        char spike = buffer.getChar();
+        String levelName = getString(buffer);
+        String music = getString(buffer);
+        int directoryOffset = buffer.getInt();
+        int dataOffset = buffer.getInt();
+
+        // Directory and data must lie inside the file, after the header
+        long chunkCount = (long) ((width + TileStore.CHUNK_SIZE - 1) >>> TileStore.CHUNK_BITS)
+            * ((height + TileStore.CHUNK_SIZE - 1) >>> TileStore.CHUNK_BITS);
+        long directoryEnd = directoryOffset + chunkCount * 4;
+        if (directoryOffset < buffer.position() || directoryEnd > size || dataOffset < directoryEnd) {
+            throw new IOException("Map file is truncated or damaged (chunk directory): " + file);
+        }
+        int chunkBytes = TileStore.CHUNK_SIZE * TileStore.CHUNK_SIZE * bitsPerTile / 8;
+        long blockCount = Math.max(0, (size - dataOffset) / chunkBytes);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int entry = buffer.getInt(directoryOffset + chunk * 4);
+            if (entry >= 0 ? entry >= blockCount : ~entry >= paletteSize) {
+                throw new IOException("Map file is truncated or damaged (chunk " + chunk + "): " + file);
+            }
+        }
+
+        TileStore tiles = new TileStore(buffer, width, height, palette, bitsPerTile,
+            directoryOffset, dataOffset);
+        return new MappedGameMap(file, tiles, wall, floor, goblin, wolf, spike, levelName, music);
+    }
+
+    /**
+     * Palette indices of one chunk (clipped tiles stay 0)
+     * @return The palette index if the whole chunk is one tile, else -1
+     */
+    private static int readChunk(TileStore tiles, int cx, int cy, int[] indices) {
+        int uniform = tiles.getUniformIndex(cx, cy);
+        if (uniform >= 0) {
+            return uniform;
+        }
+        int x0 = cx << TileStore.CHUNK_BITS;
+        int y0 = cy << TileStore.CHUNK_BITS;
+        int first = tiles.getPaletteIndex(x0, y0);
+        boolean same = true;
+        for (int ty = 0; ty < TileStore.CHUNK_SIZE; ty++) {
+            for (int tx = 0; tx < TileStore.CHUNK_SIZE; tx++) {
+                int x = x0 + tx;
+                int y = y0 + ty;
+                int index = x < tiles.getWidth() && y < tiles.getHeight() ? tiles.getPaletteIndex(x, y) : first;
+                indices[(ty << TileStore.CHUNK_BITS) | tx] = index;
+                same &= index == first;
+            }
+        }
+        return same ? first : -1;
+    }
+
+    private static void packChunk(int[] indices, int bitsPerTile, ByteBuffer block) {
+        block.clear();
+        if (bitsPerTile == 8) {
+            for (int index : indices) {
+                block.put((byte) index);
+            }
+        } else {
+            for (int i = 0; i < indices.length; i += 2) {
+                block.put((byte) (indices[i] | (indices[i + 1] << 4)));
+            }
+        }
+        block.flip();
+    }
+
+    private static int alignToPage(int offset) {
+        return (offset + PAGE_SIZE - 1) / PAGE_SIZE * PAGE_SIZE;
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
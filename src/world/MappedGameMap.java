@@ -0,0 +1,78 @@
+package world;
+
+import java.nio.file.Path;
+
+/**
+ * MappedGameMap - A level loaded from a MapFile instead of a char[][] literal
+ *
+ * Everything that the built-in layouts hardcode (characters, name, music)
+ * comes from the file header; the tiles stay in the memory-mapped file.
+ */
+public class MappedGameMap extends GameMap {
+    private final Path file;
+    private final TileStore tiles;
+    private final char wallChar;
+    private final char floorChar;
+    private final char goblinChar;
+    private final char wolfChar;
+    private final char spikeChar;
+    private final String levelName;
+    private final String music;
+
+    MappedGameMap(Path file, TileStore tiles, char wallChar, char floorChar, char goblinChar,
+                  char wolfChar, char spikeChar, String levelName, String music) {
+        this.file = file;
+        this.tiles = tiles;
+        this.wallChar = wallChar;
+        this.floorChar = floorChar;
+        this.goblinChar = goblinChar;
+        this.wolfChar = wolfChar;
+        this.spikeChar = spikeChar;
+        this.levelName = levelName;
+        this.music = music;
+    }
+
+    @Override
+    protected TileStore createTiles() {
+        return tiles;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public char getWallChar() {
+        return wallChar;
+    }
+
+    @Override
+    public char getFloorChar() {
+        return floorChar;
+    }
+
+    @Override
+    public String getMusic() {
+        return music;
+    }
+
+    @Override
+    public String getLevelName() {
+        return levelName;
+    }
+
+    @Override
+    public char getGoblinChar() {
+        return goblinChar;
+    }
+
+    @Override
+    public char getWolfChar() {
+        return wolfChar;
+    }
+
+    @Override
+    public char getSpikeChar() {
+        return spikeChar;
+    }
+}
@@ -0,0 +1,172 @@
+package world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * PathService - Routes between two tiles of the active map
+ *
+ * One place for goal-directed movement (NPCs, bots, escort AI), so nobody
+ * has to hand-roll a search again. Use DungeonMap.getPathService().
+ *
+ * - Short routes: A* inside a window around start and goal (GridSearch)
+ * - Long routes, or short ones that must detour out of the window:
+ *   the room/portal graph (PortalGraph), refined tile by tile
+ * - Results go into a bounded LRU cache keyed by (start, goal, map version),
+ *   so asking for the same route again costs one hash lookup. "No route"
+ *   is cached too.
+ *
+ * DungeonMap bumps the map version whenever the map changes; the next
+ * query then drops the cache and the portal graph.
+ *
+ * Not thread-safe: call it from the simulation thread.
+ */
+public final class PathService {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    // Routes whose start and goal are at most this far apart (on each axis) try A* first
+    private static final int LOCAL_SPAN = 64;
+    // Room for detours around the start/goal bounding box
+    private static final int LOCAL_MARGIN = 16;
+    // Widest window: start and goal LOCAL_SPAN apart are LOCAL_SPAN + 1 tiles, plus both margins
+    private static final int WINDOW = LOCAL_SPAN + 1 + 2 * LOCAL_MARGIN;
+
+    private final GridSearch search = new GridSearch(WINDOW, WINDOW);
+    private final Map<Key, TilePath> cache;
+
+    private TileIndex builtFor;
+    private int builtVersion = -1;
+    private PortalGraph portals;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    public PathService() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize Most routes kept; the least recently used goes first
+     */
+    public PathService(int cacheSize) {
+        // accessOrder = true: get() moves an entry to the young end
+        this.cache = new LinkedHashMap<Key, TilePath>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TilePath> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Shortest (or near-shortest, for long routes) walk from start to goal
+     *
+     * @return The route including both ends, or null if there is none
+     *         (or either end is not walkable). Shared - don't modify.
+     */
+    public TilePath findPath(int startX, int startY, int goalX, int goalY) {
+        int version = DungeonMap.getMapVersion();
+        if (version != builtVersion) {
+            cache.clear();
+            builtFor = DungeonMap.getTileIndex();
+            builtVersion = version;
+            portals = null;
+        }
+
+        Key key = new Key(startX, startY, goalX, goalY, version);
+        TilePath path = cache.get(key);
+        if (path != null || cache.containsKey(key)) {
+            hits++;
+            return path;
+        }
+        misses++;
+        path = search(startX, startY, goalX, goalY);
+        cache.put(key, path);
+        return path;
+    }
+
+    private TilePath search(int sx, int sy, int gx, int gy) {
+        TileIndex tiles = builtFor;
+        if (!tiles.isWalkable(sx, sy) || !tiles.isWalkable(gx, gy)) {
+            return null;
+        }
+        if (sx == gx && sy == gy) {
+            return new TilePath(new int[] {sx}, new int[] {sy});
+        }
+
+        if (Math.abs(sx - gx) <= LOCAL_SPAN && Math.abs(sy - gy) <= LOCAL_SPAN) {
+            int x0 = Math.max(0, Math.min(sx, gx) - LOCAL_MARGIN);
+            int y0 = Math.max(0, Math.min(sy, gy) - LOCAL_MARGIN);
+            int x1 = Math.min(tiles.getWidth(), Math.max(sx, gx) + LOCAL_MARGIN + 1);
+            int y1 = Math.min(tiles.getHeight(), Math.max(sy, gy) + LOCAL_MARGIN + 1);
+            TilePath path = search.aStar(tiles, sx, sy, gx, gy, x0, y0, x1, y1);
+            boolean wholeMap = x0 == 0 && y0 == 0 && x1 == tiles.getWidth() && y1 == tiles.getHeight();
+            if (path != null || wholeMap) {
+                return path;
+            }
+        }
+
+        if (portals == null) {
+            portals = new PortalGraph(tiles, search);
+        }
+        return portals.findPath(sx, sy, gx, gy);
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Statistics
+    // ═══════════════════════════════════════════════════════════════
+
+    public long getCacheHits() {
+        return hits;
+    }
+
+    public long getCacheMisses() {
+        return misses;
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Rooms of the portal graph analysed for the current map version
+     */
+    public int getRoomsBuilt() {
+        return portals == null ? 0 : portals.getRoomsBuilt();
+    }
+
+    private static final class Key {
+        final int startX;
+        final int startY;
+        final int goalX;
+        final int goalY;
+        final int version;
+
+        Key(int startX, int startY, int goalX, int goalY, int version) {
+            this.startX = startX;
+            this.startY = startY;
+            this.goalX = goalX;
+            this.goalY = goalY;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return startX == key.startX && startY == key.startY
+                && goalX == key.goalX && goalY == key.goalY && version == key.version;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = startX;
+            hash = 31 * hash + startY;
+            hash = 31 * hash + goalX;
+            hash = 31 * hash + goalY;
+            return 31 * hash + version;
+        }
+    }
+}
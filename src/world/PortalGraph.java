@@ -0,0 +1,289 @@
+package world;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * PortalGraph - Rooms and doorways of a large map, for long routes
+ *
+ * A* over single tiles visits most of the tiles between start and goal;
+ * across a 4096x4096 world that is millions of nodes per query. Instead
+ * the map is cut into the same 32x32 chunks TileStore uses ("rooms"):
+ *
+ * - Portal: the middle tile of every walkable opening on a room border,
+ *   paired with the tile right across the border
+ * - Inside a room, the walking distance between each pair of its portals
+ *   (one BFS per portal, never leaving the room)
+ *
+ * A long route is first planned on this small graph (room by room) and
+ * then refined: each hop is a short A* inside a single room. Rooms are
+ * analysed the first time a search reaches them, so a world nobody walks
+ * across costs nothing.
+ *
+ * Routes come out near-shortest: they always pass doorways through
+ * their middle tile.
+ */
+final class PortalGraph {
+    private static final int ROOM_BITS = TileStore.CHUNK_BITS;
+    private static final int ROOM_SIZE = TileStore.CHUNK_SIZE;
+
+    private final TileIndex tiles;
+    private final int width;
+    private final int height;
+    private final int roomsX;
+    private final Room[] rooms;
+    private final GridSearch search;
+
+    private static final class Room {
+        final int x0;
+        final int y0;
+        final int x1;
+        final int y1;
+        // Tile keys (y * width + x) of the portals inside this room
+        int[] portals;
+        // Keys of the tiles across the border from each portal
+        int[][] partners;
+        // Walking distance portal i -> portal j inside the room, -1 = none
+        int[][] distance;
+        final Map<Integer, Integer> indexOf = new HashMap<>();
+
+        Room(int x0, int y0, int x1, int y1) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+        }
+    }
+
+    /**
+     * @param search Scratch search, at least one room large
+     */
+    PortalGraph(TileIndex tiles, GridSearch search) {
+        this.tiles = tiles;
+        this.width = tiles.getWidth();
+        this.height = tiles.getHeight();
+        this.roomsX = (width + ROOM_SIZE - 1) >>> ROOM_BITS;
+        int roomsY = (height + ROOM_SIZE - 1) >>> ROOM_BITS;
+        this.rooms = new Room[roomsX * roomsY];
+        this.search = search;
+    }
+
+    /**
+     * Route between two walkable tiles, or null if they aren't connected
+     */
+    TilePath findPath(int sx, int sy, int gx, int gy) {
+        int start = key(sx, sy);
+        int goal = key(gx, gy);
+        Room startRoom = room(sx, sy);
+        Room goalRoom = room(gx, gy);
+
+        // Start and goal are joined to the portals of their own rooms
+        int[] fromStart = distancesInRoom(startRoom, sx, sy);
+        int direct = startRoom == goalRoom ? search.distanceTo(gx, gy) : -1;
+        int[] toGoal = distancesInRoom(goalRoom, gx, gy);
+
+        Map<Integer, Integer> best = new HashMap<>();
+        Map<Integer, Integer> cameFrom = new HashMap<>();
+        PriorityQueue<long[]> open = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        best.put(start, 0);
+        open.add(new long[] {estimate(start, gx, gy), start, 0});
+
+        while (!open.isEmpty()) {
+            long[] entry = open.poll();
+            int node = (int) entry[1];
+            int cost = (int) entry[2];
+            if (cost > best.get(node)) {
+                continue;
+            }
+            if (node == goal) {
+                return refine(start, goal, cameFrom);
+            }
+
+            if (node == start) {
+                for (int i = 0; i < startRoom.portals.length; i++) {
+                    relax(open, best, cameFrom, node, startRoom.portals[i], cost + fromStart[i], fromStart[i], gx, gy);
+                }
+                relax(open, best, cameFrom, node, goal, cost + direct, direct, gx, gy);
+            }
+
+            Room room = room(node % width, node / width);
+            Integer index = room.indexOf.get(node);
+            if (index == null) {
+                continue;  // Start tile that isn't a portal itself
+            }
+            int[] distances = room.distance[index];
+            for (int j = 0; j < room.portals.length; j++) {
+                relax(open, best, cameFrom, node, room.portals[j], cost + distances[j], distances[j], gx, gy);
+            }
+            for (int partner : room.partners[index]) {
+                relax(open, best, cameFrom, node, partner, cost + 1, 1, gx, gy);
+            }
+            if (room == goalRoom) {
+                relax(open, best, cameFrom, node, goal, cost + toGoal[index], toGoal[index], gx, gy);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Number of rooms analysed so far (statistics)
+     */
+    int getRoomsBuilt() {
+        int built = 0;
+        for (Room room : rooms) {
+            if (room != null) {
+                built++;
+            }
+        }
+        return built;
+    }
+
+    private void relax(PriorityQueue<long[]> open, Map<Integer, Integer> best, Map<Integer, Integer> cameFrom,
+                       int from, int to, int cost, int edge, int gx, int gy) {
+        if (edge < 0) {
+            return;
+        }
+        Integer known = best.get(to);
+        if (known == null || cost < known) {
+            best.put(to, cost);
+            cameFrom.put(to, from);
+            open.add(new long[] {cost + estimate(to, gx, gy), to, cost});
+        }
+    }
+
+    /**
+     * Turn the portal-to-portal hops into a tile-by-tile route
+     */
+    private TilePath refine(int start, int goal, Map<Integer, Integer> cameFrom) {
+        List<Integer> hops = new ArrayList<>();
+        for (int node = goal; node != start; node = cameFrom.get(node)) {
+            hops.add(node);
+        }
+        hops.add(start);
+
+        int[] xs = new int[16];
+        int[] ys = new int[16];
+        int length = 0;
+        xs[length] = start % width;
+        ys[length] = start / width;
+        length++;
+        for (int i = hops.size() - 2; i >= 0; i--) {
+            int ax = xs[length - 1];
+            int ay = ys[length - 1];
+            int bx = hops.get(i) % width;
+            int by = hops.get(i) / width;
+            TilePath leg;
+            if (Math.abs(ax - bx) + Math.abs(ay - by) <= 1) {
+                leg = new TilePath(new int[] {ax, bx}, new int[] {ay, by});
+            } else {
+                // Every multi-tile hop stays inside one room (see findPath)
+                Room room = room(bx, by);
+                leg = search.aStar(tiles, ax, ay, bx, by, room.x0, room.y0, room.x1, room.y1);
+            }
+            for (int t = 1; t < leg.getLength(); t++) {
+                if (length == xs.length) {
+                    xs = Arrays.copyOf(xs, length * 2);
+                    ys = Arrays.copyOf(ys, length * 2);
+                }
+                xs[length] = leg.getX(t);
+                ys[length] = leg.getY(t);
+                length++;
+            }
+        }
+        return new TilePath(Arrays.copyOf(xs, length), Arrays.copyOf(ys, length));
+    }
+
+    /**
+     * BFS from a tile inside its room; distance to each of the room's portals
+     */
+    private int[] distancesInRoom(Room room, int x, int y) {
+        search.distancesFrom(tiles, x, y, room.x0, room.y0, room.x1, room.y1);
+        int[] distances = new int[room.portals.length];
+        for (int i = 0; i < distances.length; i++) {
+            int portal = room.portals[i];
+            distances[i] = search.distanceTo(portal % width, portal / width);
+        }
+        return distances;
+    }
+
+    private Room room(int x, int y) {
+        int index = (y >>> ROOM_BITS) * roomsX + (x >>> ROOM_BITS);
+        Room room = rooms[index];
+        if (room == null) {
+            room = build(x >>> ROOM_BITS << ROOM_BITS, y >>> ROOM_BITS << ROOM_BITS);
+            rooms[index] = room;
+        }
+        return room;
+    }
+
+    private Room build(int x0, int y0) {
+        Room room = new Room(x0, y0, Math.min(x0 + ROOM_SIZE, width), Math.min(y0 + ROOM_SIZE, height));
+
+        // Both rooms sharing a border scan the same pair of tile lines, so
+        // they agree on where the portals are without talking to each other
+        Map<Integer, List<Integer>> found = new LinkedHashMap<>();
+        if (room.x0 > 0) {
+            scanBorder(found, room.x0, room.y0, room.x0 - 1, room.y0, 0, 1, room.y1 - room.y0);
+        }
+        if (room.x1 < width) {
+            scanBorder(found, room.x1 - 1, room.y0, room.x1, room.y0, 0, 1, room.y1 - room.y0);
+        }
+        if (room.y0 > 0) {
+            scanBorder(found, room.x0, room.y0, room.x0, room.y0 - 1, 1, 0, room.x1 - room.x0);
+        }
+        if (room.y1 < height) {
+            scanBorder(found, room.x0, room.y1 - 1, room.x0, room.y1, 1, 0, room.x1 - room.x0);
+        }
+
+        int count = found.size();
+        room.portals = new int[count];
+        room.partners = new int[count][];
+        int i = 0;
+        for (Map.Entry<Integer, List<Integer>> portal : found.entrySet()) {
+            room.portals[i] = portal.getKey();
+            room.partners[i] = portal.getValue().stream().mapToInt(Integer::intValue).toArray();
+            room.indexOf.put(portal.getKey(), i);
+            i++;
+        }
+        room.distance = new int[count][];
+        for (i = 0; i < count; i++) {
+            room.distance[i] = distancesInRoom(room, room.portals[i] % width, room.portals[i] / width);
+        }
+        return room;
+    }
+
+    /**
+     * Walk one border line (inside tiles from ix,iy; outside tiles from
+     * ox,oy; step dx,dy) and add a portal in the middle of every opening
+     */
+    private void scanBorder(Map<Integer, List<Integer>> found, int ix, int iy, int ox, int oy,
+                            int dx, int dy, int length) {
+        int runStart = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean open = i < length
+                && tiles.isWalkable(ix + i * dx, iy + i * dy)
+                && tiles.isWalkable(ox + i * dx, oy + i * dy);
+            if (open && runStart < 0) {
+                runStart = i;
+            } else if (!open && runStart >= 0) {
+                int middle = (runStart + i - 1) / 2;
+                found.computeIfAbsent(key(ix + middle * dx, iy + middle * dy), k -> new ArrayList<>())
+                    .add(key(ox + middle * dx, oy + middle * dy));
+                runStart = -1;
+            }
+        }
+    }
+
+    private int estimate(int node, int gx, int gy) {
+        return Math.abs(node % width - gx) + Math.abs(node / width - gy);
+    }
+
+    private int key(int x, int y) {
+        return y * width + x;
+    }
+}
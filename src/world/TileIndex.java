@@ -0,0 +1,175 @@
+package world;
+
+import java.util.Arrays;
+
+/**
+ * TileIndex - A map compiled for fast tile queries
+ *
+ * GameMap.isWalkable() would have to go through getTiles(), the chunk
+ * table and getFloorChar(), and the player, goblins, wolves and spawner
+ * ask it many times per tick.
+ *
+ * DungeonMap.setActiveMap() builds this index of the tiles:
+ * - walkable: one bit per tile, 16 longs per 32x32 chunk
+ * - flags:    one byte per palette entry (WALL / FLOOR / HAZARD), plus
+ *             BORDER for walkable tiles on the map border
+ *
+ * isWalkable() is then a bounds check, a chunk table read and one word read.
+ *
+ * Chunks are compiled the first time something asks about them, and
+ * uniform chunks share one all-walkable / none-walkable bit block. So
+ * building the index costs the same for a 25x25 level and a memory-mapped
+ * 4096x4096 world: only the neighbourhood the game actually visits is
+ * ever read. The layout is static, so compiled chunks never need updating.
+ */
+public final class TileIndex {
+    public static final byte WALL = 1;
+    public static final byte FLOOR = 2;
+    // Walkable tile on the map border (a gap in the outer wall). Not the
+    // level's exit: that is wherever entities.DungeonExit stands.
+    public static final byte BORDER = 4;
+    // The level's trap glyph drawn into the layout itself
+    public static final byte HAZARD = 8;
+
+    // getChunkKind() results
+    public static final int CHUNK_SOLID = 0;
+    public static final int CHUNK_OPEN = 1;
+    public static final int CHUNK_MIXED = 2;
+
+    private static final int CHUNK_BITS = TileStore.CHUNK_BITS;
+    private static final int CHUNK_MASK = TileStore.CHUNK_SIZE - 1;
+    private static final int WORDS_PER_CHUNK = TileStore.CHUNK_SIZE * TileStore.CHUNK_SIZE / 64;
+    private static final long[] ALL_WALKABLE = filled(-1L);
+    private static final long[] NONE_WALKABLE = filled(0L);
+
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final TileStore tiles;
+    private final byte[] paletteFlags;
+
+    // null = chunk not compiled yet
+    private final long[][] walkable;
+
+    public TileIndex(GameMap map) {
+        this.tiles = map.getTiles();
+        this.width = tiles.getWidth();
+        this.height = tiles.getHeight();
+        this.chunksX = tiles.getChunksX();
+        this.walkable = new long[chunksX * tiles.getChunksY()][];
+
+        char floor = map.getFloorChar();
+        char hazard = map.getSpikeChar();
+        this.paletteFlags = new byte[tiles.getPaletteSize()];
+        for (int i = 0; i < paletteFlags.length; i++) {
+            char tile = tiles.getPaletteChar(i);
+            paletteFlags[i] = tile == floor ? FLOOR : tile == hazard ? HAZARD : WALL;
+        }
+    }
+
+    /**
+     * Same answer as GameMap.isWalkable(), without touching the tiles
+     * (after the first query in a chunk)
+     */
+    public boolean isWalkable(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        int chunk = (y >>> CHUNK_BITS) * chunksX + (x >>> CHUNK_BITS);
+        long[] bits = walkable[chunk];
+        if (bits == null) {
+            bits = compileChunk(chunk);
+        }
+        int tile = ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+        return (bits[tile >>> 6] & (1L << tile)) != 0;
+    }
+
+    /**
+     * Flags of a tile (outside the map counts as WALL)
+     */
+    public byte getFlags(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return WALL;
+        }
+        byte flags = paletteFlags[tiles.getPaletteIndex(x, y)];
+        boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+        return border && flags == FLOOR ? (byte) (FLOOR | BORDER) : flags;
+    }
+
+    public boolean hasFlag(int x, int y, byte flag) {
+        return (getFlags(x, y) & flag) != 0;
+    }
+
+    /**
+     * Number of walkable tiles (compiles every chunk - statistics only)
+     */
+    public int countWalkable() {
+        int count = 0;
+        for (int chunk = 0; chunk < walkable.length; chunk++) {
+            long[] bits = walkable[chunk] != null ? walkable[chunk] : compileChunk(chunk);
+            int x0 = (chunk % chunksX) << CHUNK_BITS;
+            int y0 = (chunk / chunksX) << CHUNK_BITS;
+            int columns = Math.min(TileStore.CHUNK_SIZE, width - x0);
+            int rows = Math.min(TileStore.CHUNK_SIZE, height - y0);
+            for (int row = 0; row < rows; row++) {
+                // One row of a chunk is 32 bits of one word
+                long rowBits = bits[row >>> 1] >>> ((row & 1) << 5);
+                long inside = columns == 32 ? 0xFFFFFFFFL : (1L << columns) - 1;
+                count += Long.bitCount(rowBits & inside);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * What a whole chunk is, read from the chunk directory only (no tiles):
+     * CHUNK_OPEN (all walkable), CHUNK_SOLID (none) or CHUNK_MIXED
+     */
+    public int getChunkKind(int chunkX, int chunkY) {
+        int uniform = tiles.getUniformIndex(chunkX, chunkY);
+        if (uniform < 0) {
+            return CHUNK_MIXED;
+        }
+        return paletteFlags[uniform] == FLOOR ? CHUNK_OPEN : CHUNK_SOLID;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    private long[] compileChunk(int chunk) {
+        int cx = chunk % chunksX;
+        int cy = chunk / chunksX;
+        long[] bits;
+        int uniform = tiles.getUniformIndex(cx, cy);
+        if (uniform >= 0) {
+            bits = paletteFlags[uniform] == FLOOR ? ALL_WALKABLE : NONE_WALKABLE;
+        } else {
+            bits = new long[WORDS_PER_CHUNK];
+            int x0 = cx << CHUNK_BITS;
+            int y0 = cy << CHUNK_BITS;
+            int x1 = Math.min(x0 + TileStore.CHUNK_SIZE, width);
+            int y1 = Math.min(y0 + TileStore.CHUNK_SIZE, height);
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    if (paletteFlags[tiles.getPaletteIndex(x, y)] == FLOOR) {
+                        int tile = ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+                        bits[tile >>> 6] |= 1L << tile;
+                    }
+                }
+            }
+        }
+        walkable[chunk] = bits;
+        return bits;
+    }
+
+    private static long[] filled(long word) {
+        long[] bits = new long[WORDS_PER_CHUNK];
+        Arrays.fill(bits, word);
+        return bits;
+    }
+}
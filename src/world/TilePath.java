@@ -0,0 +1,39 @@
+package world;
+
+/**
+ * TilePath - A walkable route, tile by tile (start and goal included)
+ *
+ * Immutable: PathService hands the same instance to every caller that
+ * asks for the same route.
+ */
+public final class TilePath {
+    private final int[] xs;
+    private final int[] ys;
+
+    TilePath(int[] xs, int[] ys) {
+        this.xs = xs;
+        this.ys = ys;
+    }
+
+    /**
+     * Number of tiles, including the start tile
+     */
+    public int getLength() {
+        return xs.length;
+    }
+
+    /**
+     * Number of moves needed (length - 1)
+     */
+    public int getSteps() {
+        return xs.length - 1;
+    }
+
+    public int getX(int index) {
+        return xs[index];
+    }
+
+    public int getY(int index) {
+        return ys[index];
+    }
+}
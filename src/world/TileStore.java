@@ -0,0 +1,411 @@
+package world;
+
+import utils.TileRows;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TileStore - World tiles in fixed-size chunks of palette indices
+ *
+ * A char[][] layout costs 2 bytes per tile plus a row object per line;
+ * a 4096x4096 world would be 32MB before anything else is loaded.
+ * Here:
+ * - Each distinct tile char gets a palette entry; tiles store the index
+ * - 4 bits per tile while the palette has at most 16 entries, else 8 bits
+ * - The world is split into CHUNK_SIZE x CHUNK_SIZE chunks; a chunk made
+ *   of one tile (solid rock, open floor) stores no tile data at all
+ *
+ * A fresh world is all uniform chunks, so creating even a 4096x4096 world
+ * is instant; chunks get their packed data the first time a tile differs.
+ *
+ * Off-heap option: chunk data lives in direct ByteBuffer pages instead of
+ * many small heap arrays (no GC scanning). Blocks are handed out from the
+ * pages in order and only for chunks that have data, so off-heap costs
+ * the same as on-heap; blocks dropped by fill() are reused first.
+ *
+ * Mapped (read-only): tiles are read straight out of a memory-mapped
+ * MapFile - its chunk directory and chunk data. Nothing is copied onto the
+ * heap; the OS pages chunks in when they are first touched.
+ */
+public final class TileStore implements TileRows {
+    public static final int CHUNK_BITS = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_BITS;  // 32x32 tiles
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int TILES_PER_CHUNK = CHUNK_SIZE * CHUNK_SIZE;
+    private static final int MAX_PALETTE = 256;
+    // Off-heap page: 128 chunks at 4 bits per tile, 64 at 8 bits
+    private static final int SLAB_PAGE_BYTES = 64 * 1024;
+
+    private final int width;
+    private final int height;
+    private final int chunksX;
+    private final int chunksY;
+    private final boolean offHeap;
+
+    private char[] palette = new char[16];
+    private int paletteSize = 0;
+    private int bitsPerTile = 4;
+
+    // null = uniform chunk (every tile is uniformIndex[chunk]); unused when mapped
+    private ByteBuffer[] chunks;
+    private final byte[] uniformIndex;
+    private int materializedChunks = 0;
+
+    // Off-heap: fixed-size direct pages, the last one filled up to slabPageUsed
+    private final List<ByteBuffer> slabPages = new ArrayList<>();
+    private int slabPageUsed = SLAB_PAGE_BYTES;
+    // Off-heap blocks of chunks that became uniform again (reused before new ones)
+    private ByteBuffer[] freeBlocks = new ByteBuffer[16];
+    private int freeBlockCount = 0;
+
+    // Mapped: MapFile contents (absolute reads only - shared with the render thread)
+    private final ByteBuffer mapped;
+    private final int directoryOffset;
+    private final int dataOffset;
+
+    /**
+     * @param fill Tile every position starts as (palette entry 0)
+     * @param offHeap Keep chunk data in a direct ByteBuffer
+     */
+    public TileStore(int width, int height, char fill, boolean offHeap) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("World size must be positive: " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_MASK) >>> CHUNK_BITS;
+        this.chunksY = (height + CHUNK_MASK) >>> CHUNK_BITS;
+        this.offHeap = offHeap;
+        this.chunks = new ByteBuffer[chunksX * chunksY];
+        this.uniformIndex = new byte[chunksX * chunksY];
+        this.mapped = null;
+        this.directoryOffset = 0;
+        this.dataOffset = 0;
+        paletteIndexOf(fill);
+    }
+
+    /**
+     * Read-only view of a mapped MapFile (see MapFile.open)
+     */
+    TileStore(ByteBuffer mapped, int width, int height, char[] palette, int bitsPerTile,
+              int directoryOffset, int dataOffset) {
+        this.width = width;
+        this.height = height;
+        this.chunksX = (width + CHUNK_MASK) >>> CHUNK_BITS;
+        this.chunksY = (height + CHUNK_MASK) >>> CHUNK_BITS;
+        this.offHeap = true;
+        this.chunks = null;
+        this.uniformIndex = null;
+        this.mapped = mapped;
+        this.directoryOffset = directoryOffset;
+        this.dataOffset = dataOffset;
+        this.palette = palette.clone();
+        this.paletteSize = palette.length;
+        this.bitsPerTile = bitsPerTile;
+    }
+
+    /**
+     * Pack a hand-written char[][] layout (the built-in 25x25 levels)
+     */
+    public static TileStore fromLayout(char[][] layout) {
+        TileStore tiles = new TileStore(layout[0].length, layout.length, layout[0][0], false);
+        for (int y = 0; y < layout.length; y++) {
+            for (int x = 0; x < layout[y].length; x++) {
+                tiles.set(x, y, layout[y][x]);
+            }
+        }
+        return tiles;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Tile access
+    // ═══════════════════════════════════════════════════════════════
+
+    public char get(int x, int y) {
+        return palette[getPaletteIndex(x, y)];
+    }
+
+    /**
+     * Palette index of a tile (caller checks bounds)
+     */
+    public int getPaletteIndex(int x, int y) {
+        int chunk = (y >>> CHUNK_BITS) * chunksX + (x >>> CHUNK_BITS);
+        if (mapped != null) {
+            return mappedPaletteIndex(chunk, ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK));
+        }
+        ByteBuffer data = chunks[chunk];
+        if (data == null) {
+            return uniformIndex[chunk] & 0xFF;
+        }
+        int tile = ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+        if (bitsPerTile == 8) {
+            return data.get(tile) & 0xFF;
+        }
+        int packed = data.get(tile >>> 1);
+        return (tile & 1) == 0 ? packed & 0x0F : (packed >>> 4) & 0x0F;
+    }
+
+    public void set(int x, int y, char tile) {
+        requireWritable();
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            throw new IndexOutOfBoundsException("Tile (" + x + ", " + y + ") outside " + width + "x" + height);
+        }
+        int index = paletteIndexOf(tile);
+        int chunk = (y >>> CHUNK_BITS) * chunksX + (x >>> CHUNK_BITS);
+        ByteBuffer data = chunks[chunk];
+        if (data == null) {
+            if ((uniformIndex[chunk] & 0xFF) == index) {
+                return;
+            }
+            data = materialize(chunk);
+        }
+        int position = ((y & CHUNK_MASK) << CHUNK_BITS) | (x & CHUNK_MASK);
+        if (bitsPerTile == 8) {
+            data.put(position, (byte) index);
+        } else {
+            int packed = data.get(position >>> 1);
+            packed = (position & 1) == 0 ? (packed & 0xF0) | index : (packed & 0x0F) | (index << 4);
+            data.put(position >>> 1, (byte) packed);
+        }
+    }
+
+    /**
+     * Set a rectangle (clipped to the world). Whole chunks covered by the
+     * rectangle become uniform again and drop their data.
+     */
+    public void fill(int fromX, int fromY, int w, int h, char tile) {
+        int x0 = Math.max(0, fromX);
+        int y0 = Math.max(0, fromY);
+        int x1 = Math.min(width, fromX + w);
+        int y1 = Math.min(height, fromY + h);
+        requireWritable();
+        int index = paletteIndexOf(tile);
+
+        // Chunks entirely inside the rectangle: just mark them uniform
+        for (int cy = 0; cy < chunksY; cy++) {
+            for (int cx = 0; cx < chunksX; cx++) {
+                if (coversChunk(cx, cy, x0, y0, x1, y1)) {
+                    int chunk = cy * chunksX + cx;
+                    if (chunks[chunk] != null) {
+                        releaseBlock(chunks[chunk]);
+                        chunks[chunk] = null;
+                        materializedChunks--;
+                    }
+                    uniformIndex[chunk] = (byte) index;
+                }
+            }
+        }
+
+        // Partially covered chunks: tile by tile
+        for (int y = y0; y < y1; y++) {
+            int x = x0;
+            while (x < x1) {
+                if (coversChunk(x >>> CHUNK_BITS, y >>> CHUNK_BITS, x0, y0, x1, y1)) {
+                    x = (x | CHUNK_MASK) + 1;
+                } else {
+                    set(x, y, tile);
+                    x++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy count tiles of row y starting at fromX into dst (clipped to the world)
+     * @return Number of tiles copied
+     */
+    @Override
+    public int copyRow(int y, int fromX, char[] dst, int dstOffset, int count) {
+        if (y < 0 || y >= height || fromX < 0 || fromX >= width) {
+            return 0;
+        }
+        int n = Math.min(count, width - fromX);
+        for (int i = 0; i < n; i++) {
+            dst[dstOffset + i] = get(fromX + i, y);
+        }
+        return n;
+    }
+
+    /**
+     * Palette index every tile of chunk (cx, cy) has, or -1 if the chunk has mixed tiles
+     */
+    public int getUniformIndex(int cx, int cy) {
+        int chunk = cy * chunksX + cx;
+        if (mapped != null) {
+            int entry = mapped.getInt(directoryOffset + chunk * 4);
+            return entry < 0 ? ~entry : -1;
+        }
+        return chunks[chunk] == null ? uniformIndex[chunk] & 0xFF : -1;
+    }
+
+    public int getChunksX() { return chunksX; }
+    public int getChunksY() { return chunksY; }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Palette
+    // ═══════════════════════════════════════════════════════════════
+
+    public int getPaletteSize() {
+        return paletteSize;
+    }
+
+    public char getPaletteChar(int index) {
+        return palette[index];
+    }
+
+    private int paletteIndexOf(char tile) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == tile) {
+                return i;
+            }
+        }
+        if (paletteSize == MAX_PALETTE) {
+            throw new IllegalStateException("More than " + MAX_PALETTE + " distinct tiles");
+        }
+        if (paletteSize == palette.length) {
+            palette = Arrays.copyOf(palette, palette.length * 2);
+        }
+        if (paletteSize == 16 && bitsPerTile == 4) {
+            repackTo8Bits();
+        }
+        palette[paletteSize] = tile;
+        return paletteSize++;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Chunk storage
+    // ═══════════════════════════════════════════════════════════════
+
+    int chunkBytes() {
+        return TILES_PER_CHUNK * bitsPerTile / 8;
+    }
+
+    /**
+     * Give a uniform chunk real tile data (filled with its uniform tile)
+     */
+    private ByteBuffer materialize(int chunk) {
+        ByteBuffer data = offHeap ? allocateBlock() : ByteBuffer.allocate(chunkBytes());
+        int index = uniformIndex[chunk] & 0xFF;
+        byte fillByte = bitsPerTile == 8 ? (byte) index : (byte) (index | (index << 4));
+        for (int i = 0; i < data.capacity(); i++) {
+            data.put(i, fillByte);
+        }
+        chunks[chunk] = data;
+        materializedChunks++;
+        return data;
+    }
+
+    /**
+     * Off-heap block for one chunk: a freed one, else the next one in the last page
+     */
+    private ByteBuffer allocateBlock() {
+        if (freeBlockCount > 0) {
+            ByteBuffer block = freeBlocks[--freeBlockCount];
+            freeBlocks[freeBlockCount] = null;
+            return block;
+        }
+        int bytes = chunkBytes();
+        if (slabPageUsed + bytes > SLAB_PAGE_BYTES) {
+            slabPages.add(ByteBuffer.allocateDirect(SLAB_PAGE_BYTES));
+            slabPageUsed = 0;
+        }
+        ByteBuffer block = slabPages.get(slabPages.size() - 1).slice(slabPageUsed, bytes);
+        slabPageUsed += bytes;
+        return block;
+    }
+
+    private void releaseBlock(ByteBuffer block) {
+        if (!offHeap) {
+            return;
+        }
+        if (freeBlockCount == freeBlocks.length) {
+            freeBlocks = Arrays.copyOf(freeBlocks, freeBlockCount * 2);
+        }
+        freeBlocks[freeBlockCount++] = block;
+    }
+
+    /**
+     * 17th palette entry: widen every materialized chunk to a byte per tile
+     */
+    private void repackTo8Bits() {
+        ByteBuffer[] old = chunks;
+        chunks = new ByteBuffer[old.length];
+        bitsPerTile = 8;
+        // Block size changes: start over with fresh pages
+        slabPages.clear();
+        slabPageUsed = SLAB_PAGE_BYTES;
+        Arrays.fill(freeBlocks, 0, freeBlockCount, null);
+        freeBlockCount = 0;
+        materializedChunks = 0;
+        for (int chunk = 0; chunk < old.length; chunk++) {
+            ByteBuffer packed = old[chunk];
+            if (packed == null) {
+                continue;
+            }
+            ByteBuffer wide = materialize(chunk);
+            for (int tile = 0; tile < TILES_PER_CHUNK; tile++) {
+                int b = packed.get(tile >>> 1);
+                wide.put(tile, (byte) ((tile & 1) == 0 ? b & 0x0F : (b >>> 4) & 0x0F));
+            }
+        }
+    }
+
+    /**
+     * Directory entry: >= 0 = index of the chunk's data block, < 0 = ~(uniform palette index)
+     */
+    private int mappedPaletteIndex(int chunk, int tile) {
+        int entry = mapped.getInt(directoryOffset + chunk * 4);
+        if (entry < 0) {
+            return ~entry;
+        }
+        int base = dataOffset + entry * chunkBytes();
+        if (bitsPerTile == 8) {
+            return mapped.get(base + tile) & 0xFF;
+        }
+        int packed = mapped.get(base + (tile >>> 1));
+        return (tile & 1) == 0 ? packed & 0x0F : (packed >>> 4) & 0x0F;
+    }
+
+    private void requireWritable() {
+        if (mapped != null) {
+            throw new UnsupportedOperationException("Mapped map files are read-only");
+        }
+    }
+
+    private boolean coversChunk(int cx, int cy, int x0, int y0, int x1, int y1) {
+        int left = cx << CHUNK_BITS;
+        int top = cy << CHUNK_BITS;
+        return left >= x0 && top >= y0
+            && Math.min(left + CHUNK_SIZE, width) <= x1 && Math.min(top + CHUNK_SIZE, height) <= y1;
+    }
+
+    // ═══════════════════════════════════════════════════════════════
+    // Stats
+    // ═══════════════════════════════════════════════════════════════
+
+    @Override
+    public int getWidth() { return width; }
+    @Override
+    public int getHeight() { return height; }
+    public int getBitsPerTile() { return bitsPerTile; }
+    public boolean isOffHeap() { return offHeap; }
+    public boolean isMapped() { return mapped != null; }
+    public int getChunkCount() { return chunksX * chunksY; }
+    public int getMaterializedChunkCount() { return materializedChunks; }
+
+    /**
+     * Approximate memory used for tiles (chunk table + tile data).
+     * Mapped stores hold no tile memory of their own (it is file cache).
+     */
+    public long getMemoryBytes() {
+        if (mapped != null) {
+            return paletteSize * 2L;
+        }
+        long tables = chunks.length * 5L;  // reference (compressed oop) + uniform byte
+        long data = offHeap ? (long) slabPages.size() * SLAB_PAGE_BYTES : (long) materializedChunks * chunkBytes();
+        return tables + data;
+    }
+}